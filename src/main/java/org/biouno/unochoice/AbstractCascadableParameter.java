@@ -26,16 +26,31 @@ package org.biouno.unochoice;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.StringUtils;
 import org.biouno.unochoice.model.Script;
+import org.biouno.unochoice.util.Utils;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
 import org.kohsuke.stapler.json.JsonHttpResponse;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.Util;
+import hudson.model.Job;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
 
 /**
  * Base class for cascadable parameters, providing basic and utility methods.
@@ -50,11 +65,16 @@ public abstract class AbstractCascadableParameter extends AbstractScriptablePara
      */
     private static final long serialVersionUID = 3795727126307053346L;
     /**
-     * Map with parameters in the UI.
+     * Session attribute holding the parameters in the UI of each cascadable parameter, for the user session.
+     */
+    private static final String SESSION_PARAMETERS = AbstractCascadableParameter.class.getName() + ".parameters";
+    private static final Object SESSION_LOCK = new Object();
+    /**
+     * Map with parameters in the UI, used when there is no current request (e.g. when the parameter is used
+     * outside of the UI, or in tests).
      */
     // Map is not serializable, but LinkedHashMap is. Ignore static analysis errors
     protected final Map<Object, Object> parameters = new LinkedHashMap<>();
-
     /**
      * Referenced parameters.
      */
@@ -97,13 +117,56 @@ public abstract class AbstractCascadableParameter extends AbstractScriptablePara
         return referencedParameters;
     }
 
-    /*
-     * (non-Javadoc)
+    /**
+     * Returns the parameters in the UI. When called in a request, they are kept in the session of the user, so
+     * that concurrent users of the same job neither share nor wait for each other's values. Reading them does not
+     * create a session (e.g. for anonymous users viewing the build page): without a session, the parameters are
+     * empty until updated.
+     *
+     * @return the parameters of the current user session, or of this instance if there is no current request
      * @see org.biouno.unochoice.AbstractScriptableParameter#getParameters()
      */
     @Override
     public Map<Object, Object> getParameters() {
-        return parameters;
+        final StaplerRequest2 request = Stapler.getCurrentRequest2();
+        if (request == null) {
+            return parameters;
+        }
+        final HttpSession session = request.getSession(false);
+        final Map<Object, Object> sessionParameters = session != null ? getSessionParameters(session, false) : null;
+        return sessionParameters != null ? sessionParameters : Collections.synchronizedMap(new LinkedHashMap<>());
+    }
+
+    /**
+     * @param session the session of the current user
+     * @param create whether to create the parameters if the session does not have them yet
+     * @return the parameters kept in the session, or {@code null} if there are none and {@code create} is false
+     */
+    private Map<Object, Object> getSessionParameters(HttpSession session, boolean create) {
+        @SuppressWarnings("unchecked")
+        Map<String, Map<Object, Object>> sessionParameters = (Map<String, Map<Object, Object>>) session.getAttribute(SESSION_PARAMETERS);
+        if (sessionParameters == null) {
+            if (!create) {
+                return null;
+            }
+            synchronized (SESSION_LOCK) {
+                @SuppressWarnings("unchecked")
+                final Map<String, Map<Object, Object>> existing = (Map<String, Map<Object, Object>>) session.getAttribute(SESSION_PARAMETERS);
+                sessionParameters = existing;
+                if (sessionParameters == null) {
+                    sessionParameters = new ConcurrentHashMap<>();
+                    session.setAttribute(SESSION_PARAMETERS, sessionParameters);
+                }
+            }
+        }
+        // copied jobs share the random name of their parameters; reconfigured or reloaded instances of the same
+        // parameter share the same entry
+        final String key = StringUtils.defaultString(getKnownProjectFullName()) + "/" + getRandomName();
+        if (!create) {
+            return sessionParameters.get(key);
+        }
+        // the same user may update the parameter from several tabs
+        return sessionParameters.computeIfAbsent(key, k -> Collections.synchronizedMap(new LinkedHashMap<>()));
     }
 
     // --- methods called from the UI
@@ -115,18 +178,212 @@ public abstract class AbstractCascadableParameter extends AbstractScriptablePara
     @Override
     @JavaScriptMethod
     public void doUpdate(String parameters) {
-        getParameters().clear();
+        updateParameters(parameters);
+        throw new JsonHttpResponse(null);
+    }
+
+    /**
+     * Updates the parameters in the UI and returns the new choices, in a single call from the UI. The hash of the
+     * choices is sent in the {@code ETag} header, and if it is the hash of the choices displayed in the UI, the
+     * response is {@code 304 Not Modified}, without a body.
+     *
+     * @param parameters values of the referenced parameters by name, each one a value or an array of values
+     * @param hash hash of the choices displayed in the UI, or {@code null}
+     * @return the choices, as in {@link #getChoicesForUI()}
+     * @since 2.8.10
+     */
+    @JavaScriptMethod
+    public List<Object> updateAndGetChoicesForUI(JSONObject parameters, @CheckForNull String hash) {
+        updateParameters(parseParameters(parameters));
+        return ifModified(getChoicesForUI(), hash);
+    }
+
+    /**
+     * Updates the parameters in the UI, and evaluates every parameter of the job affected by the change of this
+     * parameter, in a single call from the UI. Each parameter is evaluated after the parameters that it references,
+     * with the value that the UI displays for them once updated, and independent parameters are evaluated
+     * concurrently.
+     *
+     * @param parameters values of the parameters in the UI by name, each one a value or an array of values
+     * @param hashes hashes of the choices displayed in the UI by parameter name, or {@code null}
+     * @return the hash of the choices of each affected parameter by parameter name, under {@code hashes}, the
+     * choices of the affected parameters whose hash changed by parameter name, under {@code choices}, as in
+     * {@link #getChoicesForUI()} (or {@link DynamicReferenceParameter#getChoicesAsStringForUI()} for the parameters
+     * rendered as HTML or text), and the names of the parameters whose value is only known once rendered, whose
+     * dependents are then updated by the UI, under {@code pending}
+     * @since 2.8.10
+     */
+    @JavaScriptMethod
+    public Map<String, Object> updateCascadeForUI(JSONObject parameters, @CheckForNull JSONObject hashes) {
+        final Map<String, Object> choices = new LinkedHashMap<>();
+        final Map<String, String> newHashes = new LinkedHashMap<>();
+        final List<String> pending = new ArrayList<>();
+        final Job<?, ?> project = findProject();
+        if (project != null) {
+            final Map<String, String> knownHashes = parseParameters(hashes);
+            final Map<String, CascadeGraph.Result> results = CascadeGraph.of(project).evaluate(getName(),
+                    parseParameters(parameters), knownHashes);
+            for (Map.Entry<String, CascadeGraph.Result> result : results.entrySet()) {
+                final String hash = result.getValue().getHash();
+                newHashes.put(result.getKey(), hash);
+                if (!hash.equals(knownHashes.get(result.getKey()))) {
+                    choices.put(result.getKey(), result.getValue().getChoices());
+                    if (result.getValue().getValue() == null) {
+                        pending.add(result.getKey());
+                    }
+                }
+            }
+        }
+        final Map<String, Object> response = new LinkedHashMap<>();
+        response.put("hashes", newHashes);
+        response.put("choices", choices);
+        response.put("pending", pending);
+        return response;
+    }
+
+    /**
+     * Updates the parameters in the UI with the values of the referenced parameters, and prepares the evaluation
+     * of this parameter for a cascade update, that may run in another thread.
+     *
+     * @param values values of the parameters in the UI
+     * @return the evaluation of the script and of the fallback script, each returning the choices for the UI and
+     * the value displayed in the UI for this parameter
+     */
+    CascadeGraph.Evaluation prepareCascade(Map<String, String> values) {
+        updateParameters(referencedValues(values));
+        // the parameters of the user session are only available in this thread
+        final Map<Object, Object> parameters = new LinkedHashMap<>(getParameters());
+        return new CascadeGraph.Evaluation(() -> {
+            final AtomicLong staleMillis = new AtomicLong();
+            return toResult(getChoices(parameters, staleMillis), staleMillis.get());
+        }, () -> toResult(getFallbackChoices(parameters), 0));
+    }
+
+    private CascadeGraph.Result toResult(Map<Object, Object> choices, long staleMillis) {
+        return new CascadeGraph.Result(toUI(choices, staleMillis), getDisplayedValue(choices));
+    }
+
+    /**
+     * @param values values of the parameters in the UI
+     * @return the values of the parameters referenced by this parameter
+     */
+    Map<String, String> referencedValues(Map<String, String> values) {
+        final Map<String, String> referencedValues = new LinkedHashMap<>();
+        for (String name : CascadeGraph.referencedNames(getReferencedParameters())) {
+            referencedValues.put(name, values.getOrDefault(name, ""));
+        }
+        return referencedValues;
+    }
+
+    /**
+     * Returns the value that the UI displays for the given choices: the selected choices, or the first choice of a
+     * single select without selected choices. Only known for selects without filter and without disabled choices;
+     * the value of radio buttons, checkboxes, filtered lists and disabled choices is only known once rendered.
+     *
+     * @param choices the choices
+     * @return the value of this parameter in the UI, or {@code null} if only known once rendered
+     */
+    @CheckForNull
+    private String getDisplayedValue(Map<Object, Object> choices) {
+        final String choiceType = getChoiceType();
+        final boolean multiple = PARAMETER_TYPE_MULTI_SELECT.equals(choiceType);
+        if (!multiple && !PARAMETER_TYPE_SINGLE_SELECT.equals(choiceType)) {
+            return null;
+        }
+        if (this instanceof CascadeChoiceParameter && ((CascadeChoiceParameter) this).getFilterable()) {
+            return null;
+        }
+        final List<String> selected = new ArrayList<>();
+        for (Map.Entry<Object, Object> choice : choices.entrySet()) {
+            if (Utils.isDisabled(choice.getKey()) || Utils.isDisabled(choice.getValue())) {
+                return null;
+            }
+            if (Utils.isSelected(choice.getValue())) {
+                selected.add(Utils.escapeSelectedAndDisabled(choice.getKey()));
+            }
+        }
+        if (multiple) {
+            return String.join(",", selected);
+        }
+        if (!selected.isEmpty()) {
+            // the last selected option wins in single selects
+            return selected.get(selected.size() - 1);
+        }
+        return choices.isEmpty() ? "" : Utils.escapeSelectedAndDisabled(choices.keySet().iterator().next());
+    }
+
+    /**
+     * Replaces the parameters in the UI with the given {@code name=value} pairs.
+     *
+     * @param parameters referenced parameters, separated by {@link #SEPARATOR}
+     */
+    protected void updateParameters(String parameters) {
+        updateParameters(parseParameters(parameters));
+    }
+
+    /**
+     * Replaces the parameters in the UI with the given values.
+     *
+     * @param values referenced parameters values, by name
+     */
+    protected void updateParameters(Map<String, String> values) {
+        final StaplerRequest2 request = Stapler.getCurrentRequest2();
+        final Map<Object, Object> current = request != null
+                ? getSessionParameters(request.getSession(), true)
+                : parameters;
+        current.clear();
+        current.putAll(values);
+    }
+
+    /**
+     * Reads the values of the parameters sent by the UI. Parameters with several values (e.g. multiple selects or
+     * checkboxes) are sent as arrays, and passed to the scripts joined by commas, as the UI displays them.
+     *
+     * @param parameters values of the parameters by name, each one a value or an array of values
+     * @return the values by name
+     */
+    static Map<String, String> parseParameters(JSONObject parameters) {
+        final Map<String, String> values = new LinkedHashMap<>();
+        if (parameters == null || parameters.isNullObject()) {
+            return values;
+        }
+        for (Object name : parameters.keySet()) {
+            values.put(String.valueOf(name), toValue(parameters.get(name)));
+        }
+        return values;
+    }
+
+    private static String toValue(Object value) {
+        if (value == null || value instanceof JSONNull) {
+            return "";
+        }
+        if (value instanceof JSONArray) {
+            final List<String> values = new ArrayList<>();
+            for (Object item : (JSONArray) value) {
+                values.add(toValue(item));
+            }
+            return String.join(",", values);
+        }
+        return value.toString();
+    }
+
+    /**
+     * @param parameters {@code name=value} pairs, separated by {@link #SEPARATOR}
+     * @return the values by name
+     */
+    static Map<String, String> parseParameters(String parameters) {
+        final Map<String, String> values = new LinkedHashMap<>();
         final String[] params = parameters.split(SEPARATOR);
         for (String param : params) {
             final String[] nameValue = param.split(EQUALS);
             if (nameValue.length == 1) {
                 final String name = nameValue[0].trim();
                 if (!name.isEmpty())
-                    getParameters().put(name, "");
+                    values.put(name, "");
             } else if (nameValue.length == 2) {
                 final String name = nameValue[0];
                 final String value = nameValue[1];
-                getParameters().put(name, value);
+                values.put(name, value);
             } else if (nameValue.length > 2) {
                 // TBD: we can eliminate this branch by splitting only on the first EQUALS
                 final String name = nameValue[0];
@@ -139,10 +396,10 @@ public abstract class AbstractCascadableParameter extends AbstractScriptablePara
                     }
                 }
                 final String value = sb.toString();
-                getParameters().put(name, value);
+                values.put(name, value);
             }
         }
-        throw new JsonHttpResponse(null);
+        return values;
     }
 
     /*
@@ -152,8 +409,60 @@ public abstract class AbstractCascadableParameter extends AbstractScriptablePara
     @Override
     @JavaScriptMethod
     public List<Object> getChoicesForUI() {
-        Map<Object, Object> mapResult = getChoices(getParameters());
-        return Arrays.asList(mapResult.values(), mapResult.keySet());
+        final AtomicLong staleMillis = new AtomicLong();
+        return toUI(getChoices(getParameters(), staleMillis), staleMillis.get());
+    }
+
+    static List<Object> toUI(Map<Object, Object> mapResult, long staleMillis) {
+        // the third element is the time, in milliseconds, since the choices expired when served stale
+        return Arrays.asList(mapResult.values(), mapResult.keySet(), staleMillis);
+    }
+
+    /**
+     * Returns the hash of the given choices for the UI, that changes when the choices displayed in the UI change.
+     *
+     * @param choices the choices for the UI, as in {@link #getChoicesForUI()}, or a string
+     * @return the hash of the choices
+     */
+    static String getChoicesHash(Object choices) {
+        if (choices instanceof List) {
+            final List<?> ui = (List<?>) choices;
+            // the time since the choices expired is not displayed
+            return Util.getDigestOf(JSONArray.fromObject(ui.size() > 2 ? ui.subList(0, 2) : ui).toString());
+        }
+        return Util.getDigestOf(String.valueOf(choices));
+    }
+
+    /**
+     * Returns the hash of the choices for the UI, rendered with the page so that the first update of the
+     * parameter in the UI can be answered with {@code 304 Not Modified} when its choices did not change.
+     *
+     * @return the hash of the choices for the UI, as sent in the {@code ETag} header of the updates
+     * @since 2.8.10
+     */
+    public String getChoicesHashForUI() {
+        return getChoicesHash(getChoicesForUI());
+    }
+
+    /**
+     * Sends the hash of the given choices for the UI in the {@code ETag} header of the current response, and
+     * responds with {@code 304 Not Modified} if the UI already displays them.
+     *
+     * @param choices the choices for the UI
+     * @param hash hash of the choices displayed in the UI, with or without quotes, or {@code null}
+     * @param <T> the type of the choices
+     * @return the choices, if their hash is not the given hash
+     */
+    static <T> T ifModified(T choices, @CheckForNull String hash) {
+        final String newHash = getChoicesHash(choices);
+        final StaplerResponse2 response = Stapler.getCurrentResponse2();
+        if (response != null) {
+            response.setHeader("ETag", '"' + newHash + '"');
+        }
+        if (newHash.equals(StringUtils.strip(hash, "\""))) {
+            throw HttpResponses.status(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        return choices;
     }
 
     public String[] getReferencedParametersAsArray() {
@@ -25,30 +25,46 @@
 package org.biouno.unochoice;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import org.apache.commons.lang3.StringUtils;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.model.LazyValue;
 import org.biouno.unochoice.model.Script;
+import org.biouno.unochoice.model.ScriptAnalysis;
+import org.biouno.unochoice.model.ScriptlerScript;
+import org.biouno.unochoice.util.ChoiceCache;
+import org.biouno.unochoice.util.CircuitBreaker;
+import org.biouno.unochoice.util.GlobalNodePropertiesSnapshot;
 import org.biouno.unochoice.util.ScriptCallback;
+import org.biouno.unochoice.util.ScriptEvaluationExecutor;
+import org.biouno.unochoice.util.SingleFlight;
 import org.biouno.unochoice.util.Utils;
-import org.kohsuke.stapler.Ancestor;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.RejectedAccessException;
+import org.jenkinsci.plugins.scriptsecurity.scripts.UnapprovedUsageException;
 import org.kohsuke.stapler.DataBoundSetter;
-import org.kohsuke.stapler.Stapler;
-import org.kohsuke.stapler.StaplerRequest2;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.model.AbstractItem;
 import hudson.model.Job;
 import hudson.model.ParameterValue;
-import hudson.model.Project;
-import hudson.model.Run;
 import hudson.model.StringParameterValue;
 import jenkins.model.Jenkins;
+import jenkins.util.Timer;
 
 /**
  * Base class for parameters with scripts.
@@ -83,6 +99,14 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
      * Constant used to add the parameter name in the environment variables map.
      */
     protected static final String JENKINS_PARAMETER_VARIABLE_NAME = "jenkinsParameter";
+    /**
+     * Marker returned when the script was not evaluated, and the fallback script must be used.
+     */
+    private static final Object NOT_EVALUATED = new Object();
+    /**
+     * Marker returned when the evaluation started for the page timed out, and the fallback script must be used.
+     */
+    private static final Object PREFETCH_TIMED_OUT = new Object();
     /**
      * Number of visible items on the screen.
      */
@@ -118,6 +142,20 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
      * {@link #getCacheDefaultValue()} is {@code true}.
      */
     private String cachedDefaultValue;
+    /**
+     * Maximum time, in seconds, to wait for the script evaluation. When not set, or zero or negative,
+     * {@link ScriptEvaluationExecutor#DEFAULT_TIMEOUT} is used.
+     */
+    private Integer evaluationTimeout;
+    /**
+     * Time-to-live, in seconds, of the script results cached for the same referenced parameter values.
+     * When not set, results are not cached.
+     */
+    private Integer choicesCacheTtl;
+    /**
+     * Whether expired cached results are returned immediately while they are refreshed in the background.
+     */
+    private Boolean staleWhileRevalidate;
 
     /**
      * Inherited constructor.
@@ -172,18 +210,45 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
         }
     }
 
-    protected AbstractItem detectProject() {
-        final StaplerRequest2 currentRequest = Stapler.getCurrentRequest2();
-        if (currentRequest != null) {
-            final Ancestor ancestor = currentRequest.findAncestor(AbstractItem.class);
-            if (ancestor != null) {
-                final Object o = ancestor.getObject();
-                if (o instanceof AbstractItem) {
-                    return (AbstractItem) o;
-                }
-            }
+    /**
+     * @return the full name of the project of this parameter, if known without resolving the project
+     */
+    @CheckForNull
+    String getKnownProjectFullName() {
+        return StringUtils.defaultIfBlank(this.projectFullNameCache, this.projectFullName);
+    }
+
+    /**
+     * Remembers, in memory, the given project as the project of this parameter, if the parameter was persisted
+     * without the full name of its project (e.g. with only its short name, by older versions), so that the project
+     * is then found by its full name. The job configuration is not changed, so this is done again after each
+     * restart, until the job is saved.
+     *
+     * @param project the project defining this parameter
+     * @since 2.8.10
+     */
+    void rememberIndexedProject(AbstractItem project) {
+        if (StringUtils.isBlank(this.projectFullName) && StringUtils.isBlank(this.projectFullNameCache)) {
+            rememberProject(project);
         }
-        return null;
+    }
+
+    /**
+     * Evaluates the choices of this parameter without any referenced parameter value, in order to fill the
+     * choice cache before they are requested.
+     *
+     * @param job the job of this parameter
+     * @since 2.8.10
+     */
+    void prewarm(Job<?, ?> job) {
+        rememberProject(job);
+        getChoices(Collections.emptyMap());
+    }
+
+    protected AbstractItem detectProject() {
+        // the request ancestors are only looked up once per request, for all the parameters
+        final ProjectContext context = ProjectContext.current();
+        return context != null ? context.getItem() : null;
     }
 
     /**
@@ -217,6 +282,86 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
         }
     }
 
+    /**
+     * Gets the maximum time, in seconds, to wait for the script evaluation.
+     *
+     * @return the evaluation timeout, or {@code null} to use the global default
+     * @since 2.8.10
+     */
+    public Integer getEvaluationTimeout() {
+        return evaluationTimeout;
+    }
+
+    /**
+     * Sets the maximum time, in seconds, to wait for the script evaluation. When the timeout is reached,
+     * the fallback script is used.
+     *
+     * @param evaluationTimeout the evaluation timeout, or {@code null} to use the global default
+     * @since 2.8.10
+     */
+    @DataBoundSetter
+    public void setEvaluationTimeout(Integer evaluationTimeout) {
+        this.evaluationTimeout = evaluationTimeout != null && evaluationTimeout > 0 ? evaluationTimeout : null;
+    }
+
+    long getEffectiveEvaluationTimeout() {
+        return evaluationTimeout != null ? evaluationTimeout : ScriptEvaluationExecutor.DEFAULT_TIMEOUT;
+    }
+
+    /**
+     * Gets the time-to-live, in seconds, of the cached script results.
+     *
+     * @return the cache time-to-live, or {@code null} if the results are not cached
+     * @since 2.8.10
+     */
+    public Integer getChoicesCacheTtl() {
+        return choicesCacheTtl;
+    }
+
+    /**
+     * Sets the time-to-live, in seconds, of the cached script results. Results are cached per referenced
+     * parameter values, and shared by every user.
+     *
+     * @param choicesCacheTtl the cache time-to-live, or {@code null} to disable the cache
+     * @since 2.8.10
+     */
+    @DataBoundSetter
+    public void setChoicesCacheTtl(Integer choicesCacheTtl) {
+        this.choicesCacheTtl = choicesCacheTtl != null && choicesCacheTtl > 0 ? choicesCacheTtl : null;
+        ChoiceCache.INSTANCE.invalidate(getRandomName());
+    }
+
+    /**
+     * Gets the flag that controls whether expired cached results are returned immediately, while they are
+     * refreshed in the background (stale-while-revalidate). Only used when the results are cached.
+     *
+     * @return {@code true} if expired cached results may be returned, {@code false} (default) otherwise
+     * @since 2.8.10
+     */
+    public boolean getStaleWhileRevalidate() {
+        return staleWhileRevalidate != null && staleWhileRevalidate;
+    }
+
+    /**
+     * Sets the flag that controls whether expired cached results are returned immediately, while they are
+     * refreshed in the background.
+     *
+     * @param staleWhileRevalidate whether expired cached results may be returned
+     * @since 2.8.10
+     */
+    @DataBoundSetter
+    public void setStaleWhileRevalidate(Boolean staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    /**
+     * @return {@code true} if the script results are cached
+     * @since 2.8.10
+     */
+    public boolean isChoicesCacheEnabled() {
+        return choicesCacheTtl != null;
+    }
+
     /**
      * Gets the current parameters, be it before or after other referenced parameters triggered an update. Populates
      * parameters common to all evaluations, such as jenkinsProject, which is the current Jenkins project.
@@ -228,14 +373,64 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
     }
 
     /**
-     * Helper parameters used to render the parameter definition.
+     * Helper parameters used to render the parameter definition. The project and its last build are
+     * {@link LazyValue}s, only resolved if the script reads them, and the variables that the script never
+     * reads are not added.
+     * @param analysis analysis of the script
      * @return Map with helper parameters
      */
-    private Map<Object, Object> getHelperParameters() {
+    private Map<Object, Object> getHelperParameters(ScriptAnalysis analysis) {
         // map with parameters
         final Map<Object, Object> helperParameters = new LinkedHashMap<>();
 
-        // First, if the project name is set, we then find the project by its name, and inject into the map
+        if (analysis.mayRead(JENKINS_PROJECT_VARIABLE_NAME) || analysis.mayRead(JENKINS_BUILD_VARIABLE_NAME)) {
+            // the current request is only available in this thread, while the script may read the variables later,
+            // in an evaluation thread
+            final AbstractItem requestItem = StringUtils.isBlank(this.projectFullNameCache) && StringUtils.isBlank(this.projectFullName)
+                    && StringUtils.isBlank(this.projectNameCache) && StringUtils.isBlank(this.projectName)
+                    ? detectProject()
+                    : null;
+            // the project and its last build are resolved once per request, for all the parameters
+            final ProjectContext context = ProjectContext.current();
+            final LazyValue project = LazyValue.of(() -> resolveProject(requestItem, context));
+            helperParameters.put(JENKINS_PROJECT_VARIABLE_NAME, project);
+            helperParameters.put(JENKINS_BUILD_VARIABLE_NAME, LazyValue.of(() -> {
+                final Job<?, ?> job = (Job<?, ?>) project.get();
+                if (job == null) {
+                    return null;
+                }
+                return context != null ? context.getLastBuildWithArtifacts(job) : ProjectContext.lastBuildWithArtifacts(job);
+            }));
+        }
+
+        // Here we set the parameter name
+        if (analysis.mayRead(JENKINS_PARAMETER_VARIABLE_NAME)) {
+            helperParameters.put(JENKINS_PARAMETER_VARIABLE_NAME, this);
+        }
+        return helperParameters;
+    }
+
+    /**
+     * Finds the project of this parameter, as the scripts see it in the {@code jenkinsProject} variable.
+     * @return the project, or {@code null} if not found
+     */
+    @CheckForNull
+    Job<?, ?> findProject() {
+        final AbstractItem requestItem = StringUtils.isBlank(this.projectFullNameCache) && StringUtils.isBlank(this.projectFullName)
+                && StringUtils.isBlank(this.projectNameCache) && StringUtils.isBlank(this.projectName)
+                ? detectProject()
+                : null;
+        return resolveProject(requestItem, ProjectContext.current());
+    }
+
+    /**
+     * Finds the project of this parameter.
+     * @param requestItem the item of the current request, if any, used when the project name is not known
+     * @param context the context of the current request, if any
+     * @return the project, or {@code null} if not found
+     */
+    private Job<?, ?> resolveProject(AbstractItem requestItem, ProjectContext context) {
+        // First, if the project name is set, we then find the project by its name
         Job<?, ?> project = null;
         final String resolvedProjectFullName = StringUtils.defaultIfBlank(this.projectFullNameCache, this.projectFullName);
         final String resolvedProjectName = StringUtils.defaultIfBlank(this.projectNameCache, this.projectName);
@@ -244,7 +439,9 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
                 LOGGER.fine(String.format("Attempting project resolution by full name '%s' for parameter '%s'", resolvedProjectFullName, getName()));
             }
             // First try full name if exists
-            project = Jenkins.get().getItemByFullName(resolvedProjectFullName, Project.class);
+            project = context != null
+                    ? context.getJob(resolvedProjectFullName)
+                    : Jenkins.get().getItemByFullName(resolvedProjectFullName, Job.class);
             if (project != null) {
                 if (LOGGER.isLoggable(Level.FINE)) {
                     LOGGER.fine(String.format("Resolved project by full name '%s' for parameter '%s'", resolvedProjectFullName, getName()));
@@ -256,7 +453,7 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
                 LOGGER.fine(String.format("Attempting project resolution by name '%s' for parameter '%s'", resolvedProjectName, getName()));
             }
             // next we try to get the item given its name, which is more efficient
-            project = Utils.getProjectByName(resolvedProjectName);
+            project = ProjectIndex.getJobByName(resolvedProjectName);
             if (project != null) {
                 if (LOGGER.isLoggable(Level.FINE)) {
                     LOGGER.fine(String.format("Resolved project by name '%s' for parameter '%s'", resolvedProjectName, getName()));
@@ -267,11 +464,13 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine(String.format("No cached project name available for parameter '%s'; attempting request-based project detection", getName()));
             }
-            // check whether the current thread has enough info to detect project
+            // check whether the current thread had enough info to detect project
             // i.e. it serves a web request to the project build page
-            final AbstractItem parentItem = detectProject();
+            final AbstractItem parentItem = requestItem;
             if (parentItem != null) {
-                project = Jenkins.get().getItemByFullName(parentItem.getFullName(), Job.class);
+                project = context != null
+                        ? context.getJob(parentItem.getFullName())
+                        : Jenkins.get().getItemByFullName(parentItem.getFullName(), Job.class);
                 if (LOGGER.isLoggable(Level.FINE)) {
                     LOGGER.fine(String.format("Resolved project from current request '%s' for parameter '%s'", parentItem.getFullName(), getName()));
                 }
@@ -283,7 +482,7 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
         // Last chance, if we were unable to get project from name and full name, try uuid
         if (project == null) {
             // otherwise, in case we don't have the item name, we iterate looking for a job that uses this UUID
-            project = Utils.findProjectByParameterUUID(this.getRandomName());
+            project = ProjectIndex.findJobByParameterUUID(this.getRandomName());
             if (project != null) {
                 if (LOGGER.isLoggable(Level.FINE)) {
                     LOGGER.fine(String.format("Resolved project by parameter UUID '%s' for parameter '%s'", this.getRandomName(), getName()));
@@ -291,21 +490,7 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
                 rememberProject(project);
             }
         }
-        if (project != null) {
-            helperParameters.put(JENKINS_PROJECT_VARIABLE_NAME, project);
-            Run<?, ?> build = project.getLastBuild();
-            if (build != null && build.getHasArtifacts()) {
-                helperParameters.put(JENKINS_BUILD_VARIABLE_NAME, build);
-            }
-        }
-
-        // Here we set the parameter name
-        helperParameters.put(JENKINS_PARAMETER_VARIABLE_NAME, this);
-
-        // Here we inject the global node properties
-        final Map<String, Object> globalNodeProperties = Utils.getGlobalNodeProperties();
-        helperParameters.putAll(globalNodeProperties);
-        return helperParameters;
+        return project;
     }
 
     public Map<Object, Object> getChoices() {
@@ -321,7 +506,21 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
     @Override
     @SuppressWarnings("unchecked") // due to Web + Java and scripts integration
     public Map<Object, Object> getChoices(Map<Object, Object> parameters) {
-        final Object value = eval(parameters);
+        return toChoices(eval(parameters, null));
+    }
+
+    /**
+     * @param parameters referenced parameter values
+     * @param staleMillis set to the time, in milliseconds, since the returned choices expired, when they are served
+     * stale while being refreshed, if not {@code null}
+     * @return the choices, as in {@link #getChoices(Map)}
+     */
+    Map<Object, Object> getChoices(Map<Object, Object> parameters, @CheckForNull AtomicLong staleMillis) {
+        return toChoices(eval(parameters, staleMillis));
+    }
+
+    @SuppressWarnings("unchecked") // due to Web + Java and scripts integration
+    private Map<Object, Object> toChoices(Object value) {
         if (value instanceof Map) {
             Map<Object, Object> map = (Map<Object, Object>) value;
             visibleItemCount = map.size();
@@ -348,25 +547,255 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
     }
 
     public String getChoicesAsString(Map<Object, Object> parameters) {
-        final Object value = eval(parameters);
+        final Object value = eval(parameters, null);
         if (value != null)
             return value.toString();
         return "";
     }
 
+    /**
+     * @param parameters referenced parameter values
+     * @return the choices of the fallback script, used when the evaluation of the script timed out elsewhere
+     */
+    Map<Object, Object> getFallbackChoices(Map<Object, Object> parameters) {
+        return toChoices(evalFallbackOnly(parameters));
+    }
+
+    /**
+     * @param parameters referenced parameter values
+     * @return the output of the fallback script, used when the evaluation of the script timed out elsewhere
+     */
+    String getFallbackChoicesAsString(Map<Object, Object> parameters) {
+        final Object value = evalFallbackOnly(parameters);
+        return value != null ? value.toString() : "";
+    }
+
+    /**
+     * Starts the evaluation of every parameter of the job of the current request, if not started yet, so that the
+     * parameters of the build page are evaluated concurrently. Called when the parameter is rendered.
+     * @since 2.8.10
+     */
+    public void prefetchChoices() {
+        ChoicesPrefetch.start();
+    }
+
+    /**
+     * @return the script result, evaluated as when the parameter is rendered, without referenced parameter values
+     */
+    Object evalForPage() {
+        return eval(Collections.emptyMap(), null);
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
-    private Object eval(Map<Object, Object> parameters) {
+    private Object eval(Map<Object, Object> parameters, @CheckForNull AtomicLong staleMillis) {
+        if (parameters.isEmpty()) {
+            // evaluated with the other parameters of the page, when the page started rendering
+            final Object prefetched = ChoicesPrefetch.join(this, NOT_EVALUATED, PREFETCH_TIMED_OUT);
+            if (prefetched == PREFETCH_TIMED_OUT) {
+                return evalFallbackOnly(parameters);
+            }
+            if (prefetched != NOT_EVALUATED) {
+                return prefetched;
+            }
+        }
         try {
-            Map<Object, Object> scriptParameters = getHelperParameters();
+            final boolean cacheEnabled = isChoicesCacheEnabled();
+            final ScriptAnalysis analysis = getScriptAnalysis();
+            // values of referenced parameters that the script never reads do not change its result
+            final ChoiceCache.Key evaluationKey = ChoiceCache.key(getRandomName(),
+                    getKnownProjectFullName(), script, analysis.retainRead(parameters));
+            final ChoiceCache.Lookup cached = cacheEnabled
+                    ? ChoiceCache.INSTANCE.lookup(evaluationKey, getStaleWhileRevalidate())
+                    : null;
+            if (cached != null && !cached.isStale()) {
+                return cached.getValue();
+            }
+            Map<Object, Object> scriptParameters = getHelperParameters(analysis);
             scriptParameters.putAll(parameters);
-            final ScriptCallback<Exception> callback = new ScriptCallback(getName(), script, scriptParameters);
-            return callback.call();
+            if (cached != null) {
+                if (staleMillis != null) {
+                    staleMillis.set(cached.getStaleMillis());
+                }
+                refresh(evaluationKey, scriptParameters);
+                return cached.getValue();
+            }
+            // results are only shared between users when the parameter already shares them via its cache
+            final Object flightKey = cacheEnabled
+                    ? evaluationKey
+                    : Arrays.asList(evaluationKey, Jenkins.getAuthentication2().getName());
+            try {
+                return SingleFlight.INSTANCE.execute(flightKey, () -> {
+                    final Object value = evaluate(scriptParameters);
+                    if (value != NOT_EVALUATED) {
+                        return cacheEnabled ? ChoiceCache.INSTANCE.put(evaluationKey, value, choicesCacheTtl) : value;
+                    }
+                    return evalFallback(scriptParameters);
+                }, getEffectiveEvaluationTimeout());
+            } catch (TimeoutException e) {
+                LOGGER.log(Level.WARNING, String.format("Identical evaluation of parameter '%s' in flight timed out, "
+                        + "using the fallback script", getName()));
+                return evalFallback(scriptParameters);
+            }
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error executing script for dynamic parameter", e);
             return Collections.emptyMap();
         }
     }
 
+    /**
+     * Refreshes a stale cached result in the background. Only one refresh per key is submitted at a time, and
+     * it is coalesced with identical foreground evaluations. The script runs inline in the evaluation thread,
+     * so the refresh is cancelled when the evaluation timeout of the parameter is reached, and the key may then
+     * be refreshed again.
+     *
+     * @param evaluationKey cache key
+     * @param scriptParameters script parameters
+     */
+    private void refresh(ChoiceCache.Key evaluationKey, Map<Object, Object> scriptParameters) {
+        if (!ChoiceCache.INSTANCE.startRefresh(evaluationKey)) {
+            return;
+        }
+        // ended once, by the refresh or by its deadline, whichever comes first
+        final AtomicBoolean ended = new AtomicBoolean();
+        final Future<Object> future;
+        try {
+            future = ScriptEvaluationExecutor.INSTANCE.submit(() -> {
+                try {
+                    return SingleFlight.INSTANCE.execute(evaluationKey, () -> {
+                        final Object value = evaluate(scriptParameters);
+                        if (value != NOT_EVALUATED) {
+                            return ChoiceCache.INSTANCE.put(evaluationKey, value, choicesCacheTtl);
+                        }
+                        return null;
+                    }, getEffectiveEvaluationTimeout());
+                } finally {
+                    if (ended.compareAndSet(false, true)) {
+                        ChoiceCache.INSTANCE.endRefresh(evaluationKey);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            ChoiceCache.INSTANCE.endRefresh(evaluationKey);
+            LOGGER.log(Level.FINE, String.format("Refresh of parameter '%s' rejected, queue is full", getName()));
+            return;
+        }
+        final long timeout = getEffectiveEvaluationTimeout();
+        if (timeout > 0) {
+            Timer.get().schedule(() -> {
+                if (!future.isDone()) {
+                    future.cancel(true);
+                    if (ended.compareAndSet(false, true)) {
+                        ChoiceCache.INSTANCE.endRefresh(evaluationKey);
+                    }
+                    LOGGER.log(Level.WARNING, String.format("Refresh of parameter '%s' timed out, cancelled", getName()));
+                }
+            }, timeout, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Evaluates the script on the evaluation executor, through the circuit breaker of this parameter.
+     *
+     * @param scriptParameters script parameters
+     * @return the script output, or {@link #NOT_EVALUATED} if the fallback script must be used instead
+     * @throws Exception if the script failed and there is no fallback script
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private Object evaluate(Map<Object, Object> scriptParameters) throws Exception {
+        final CircuitBreaker breaker = CircuitBreaker.forParameter(getKnownProjectFullName(), getRandomName(), getName());
+        if (!breaker.allowRequest()) {
+            return NOT_EVALUATED;
+        }
+        final Callable<Object> primary;
+        if (script instanceof GroovyScript) {
+            // the global node properties are only read by the binding if the script uses them
+            primary = () -> ((GroovyScript) script).evalPrimary((Map) scriptParameters, GlobalNodePropertiesSnapshot.get());
+        } else if (script instanceof ScriptlerScript) {
+            // the snapshots are passed as defaults too, instead of being copied into the parameters
+            primary = () -> ((ScriptlerScript) script).eval((Map) scriptParameters,
+                    GlobalNodePropertiesSnapshot.get(), GlobalNodePropertiesSnapshot.getWithSystemEnv());
+        } else {
+            final Map<Object, Object> parameters = new LinkedHashMap<>(GlobalNodePropertiesSnapshot.get());
+            parameters.putAll(scriptParameters);
+            primary = new ScriptCallback<Exception>(getName(), script, (Map) parameters)::call;
+        }
+        try {
+            final Object value = ScriptEvaluationExecutor.INSTANCE.evaluate(primary, getEffectiveEvaluationTimeout());
+            breaker.recordSuccess();
+            return value;
+        } catch (TimeoutException e) {
+            breaker.recordFailure("Timed out");
+            LOGGER.log(Level.WARNING, String.format("Script for parameter '%s' timed out, using the fallback script", getName()));
+            return NOT_EVALUATED;
+        } catch (RejectedExecutionException e) {
+            breaker.recordIgnored();
+            LOGGER.log(Level.WARNING, String.format("Script for parameter '%s' was not evaluated (queue is full), "
+                    + "using the fallback script", getName()));
+            return NOT_EVALUATED;
+        } catch (Exception e) {
+            if (isSecurityException(e)) {
+                // not approved or rejected by the sandbox: the fallback is used, but the script is not unhealthy
+                breaker.recordIgnored();
+            } else {
+                breaker.recordFailure(String.valueOf(e.getMessage()));
+            }
+            if (!hasFallbackScript()) {
+                throw e;
+            }
+            LOGGER.log(Level.FINEST, "Fallback to default script...", e);
+            return NOT_EVALUATED;
+        } catch (Error e) {
+            // e.g. a StackOverflowError, or an AssertionError, thrown by a script evaluated in this thread; a
+            // running probe must not stay in flight forever
+            breaker.recordFailure(String.valueOf(e));
+            throw e;
+        }
+    }
+
+    /**
+     * @return the static analysis of the Groovy scripts of this parameter, or {@link ScriptAnalysis#UNKNOWN} for
+     * other scripts
+     * @since 2.8.10
+     */
+    public ScriptAnalysis getScriptAnalysis() {
+        return script instanceof GroovyScript ? ((GroovyScript) script).getAnalysis() : ScriptAnalysis.UNKNOWN;
+    }
+
+    private boolean hasFallbackScript() {
+        return script instanceof GroovyScript && ((GroovyScript) script).getFallbackScript() != null;
+    }
+
+    private static boolean isSecurityException(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof UnapprovedUsageException || t instanceof RejectedAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object evalFallbackOnly(Map<Object, Object> parameters) {
+        try {
+            final Map<Object, Object> scriptParameters = getHelperParameters(getScriptAnalysis());
+            scriptParameters.putAll(parameters);
+            return evalFallback(scriptParameters);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error executing fallback script for dynamic parameter", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private Object evalFallback(Map scriptParameters) {
+        if (script instanceof GroovyScript) {
+            final Object value = ((GroovyScript) script).evalFallback(scriptParameters, GlobalNodePropertiesSnapshot.get());
+            if (value != null) {
+                return value;
+            }
+        }
+        return Collections.emptyMap();
+    }
+
     /*
      * (non-Javadoc)
      * @see hudson.model.ParameterDefinition#getDefaultParameterValue()
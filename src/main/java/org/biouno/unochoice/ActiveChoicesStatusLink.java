@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice;
+
+import java.util.List;
+
+import org.biouno.unochoice.model.CompiledScriptCache;
+import org.biouno.unochoice.model.ScriptClassLoader;
+import org.biouno.unochoice.util.ChoiceCache;
+import org.biouno.unochoice.util.CircuitBreaker;
+import org.biouno.unochoice.util.ScriptEvaluationExecutor;
+import org.biouno.unochoice.util.SingleFlight;
+import org.jenkinsci.Symbol;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.ManagementLink;
+
+/**
+ * Administration page displaying the state of the circuit breakers of the parameters, and the statistics of
+ * the script caches and of the script evaluation executor.
+ *
+ * @since 2.8.10
+ */
+@Extension
+@Symbol("activeChoicesStatus")
+public class ActiveChoicesStatusLink extends ManagementLink {
+
+    @Override
+    public String getIconFileName() {
+        return "symbol-analytics";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Active Choices Status";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Circuit breakers of the Active Choices parameters, and statistics of their script evaluations and caches.";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "active-choices-status";
+    }
+
+    @NonNull
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    public List<CircuitBreaker> getCircuitBreakers() {
+        return CircuitBreaker.all();
+    }
+
+    public CompiledScriptCache getCompiledScriptCache() {
+        return CompiledScriptCache.INSTANCE;
+    }
+
+    public long getScriptClassLoaderGeneration() {
+        return ScriptClassLoader.getCurrentGeneration();
+    }
+
+    public int getLoadedScriptClassCount() {
+        return ScriptClassLoader.getLoadedClassCount();
+    }
+
+    public ChoiceCache getChoiceCache() {
+        return ChoiceCache.INSTANCE;
+    }
+
+    public ScriptEvaluationExecutor getExecutor() {
+        return ScriptEvaluationExecutor.INSTANCE;
+    }
+
+    public SingleFlight getSingleFlight() {
+        return SingleFlight.INSTANCE;
+    }
+
+    public boolean isPrewarmingEnabled() {
+        return CachePrewarmer.ENABLED;
+    }
+
+    public long getPrewarmedCount() {
+        return CachePrewarmer.getPrewarmedCount();
+    }
+
+    public int getPrewarmingQueueSize() {
+        return CachePrewarmer.getQueueSize();
+    }
+}
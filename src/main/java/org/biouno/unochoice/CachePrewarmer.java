@@ -0,0 +1,223 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>Fills the choice cache of the parameters of a job when the job is saved, and of every job when Jenkins
+ * starts, so that the first user opening the job does not wait for the scripts.</p>
+ *
+ * <p>Disabled by default, it is enabled with the {@code enabled} system property prefixed by this class name.
+ * Only parameters that cache their choices and do not reference other parameters ({@link ChoiceParameter}s, and
+ * cascade parameters without referenced parameters) are evaluated, one at a time on a low priority thread. Jobs
+ * are skipped when the queue (its size is set with the {@code queueDepth} system property) is full.</p>
+ *
+ * <p>The cached choices are served to every user, so the scripts are evaluated as anonymous, and never see more
+ * than any user could. Jobs that anonymous cannot read are not pre-warmed, as their scripts would not even see
+ * their own job, and their incomplete choices would then be served to every user.</p>
+ *
+ * @since 2.8.10
+ */
+public final class CachePrewarmer {
+
+    private static final Logger LOGGER = Logger.getLogger(CachePrewarmer.class.getName());
+
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* non-final for script console */ boolean ENABLED = SystemProperties.getBoolean(CachePrewarmer.class.getName() + ".enabled");
+
+    static final int QUEUE_DEPTH = SystemProperties.getInteger(CachePrewarmer.class.getName() + ".queueDepth", 1000);
+
+    private static final ThreadPoolExecutor EXECUTOR;
+
+    static {
+        final ThreadFactory threadFactory = new NamingThreadFactory(new DaemonThreadFactory(), "Active Choices cache pre-warming");
+        EXECUTOR = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(Math.max(1, QUEUE_DEPTH)), r -> {
+            final Thread thread = threadFactory.newThread(r);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Full names of the jobs waiting to be pre-warmed, so that a job saved several times is queued once.
+     */
+    private static final Set<String> QUEUED = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicLong PREWARMED = new AtomicLong();
+
+    private CachePrewarmer() {
+    }
+
+    /**
+     * Queues the pre-warming of the parameters of a job.
+     *
+     * @param job the job
+     */
+    static void schedule(Job<?, ?> job) {
+        if (!ENABLED || !hasPrewarmableParameters(job)) {
+            return;
+        }
+        final String fullName = job.getFullName();
+        if (!QUEUED.add(fullName)) {
+            return;
+        }
+        try {
+            EXECUTOR.execute(() -> {
+                QUEUED.remove(fullName);
+                try {
+                    final Job<?, ?> current;
+                    try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+                        current = Jenkins.get().getItemByFullName(fullName, Job.class);
+                    }
+                    if (current != null && !current.getACL().hasPermission2(Jenkins.ANONYMOUS2, Item.READ)) {
+                        LOGGER.log(Level.FINE, String.format("Pre-warming of '%s' skipped, anonymous cannot read it", fullName));
+                    } else if (current != null) {
+                        try (ACLContext ctx = ACL.as2(Jenkins.ANONYMOUS2)) {
+                            prewarm(current);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, String.format("Failed to pre-warm the parameters of '%s'", fullName), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            QUEUED.remove(fullName);
+            LOGGER.log(Level.FINE, String.format("Pre-warming of '%s' skipped, queue is full", fullName));
+        }
+    }
+
+    private static void prewarm(Job<?, ?> job) {
+        final ParametersDefinitionProperty property = job.getProperty(ParametersDefinitionProperty.class);
+        if (property == null) {
+            return;
+        }
+        for (ParameterDefinition definition : property.getParameterDefinitions()) {
+            if (isPrewarmable(definition)) {
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine(String.format("Pre-warming parameter '%s' of '%s'", definition.getName(), job.getFullName()));
+                }
+                ((AbstractScriptableParameter) definition).prewarm(job);
+                PREWARMED.incrementAndGet();
+            }
+        }
+    }
+
+    private static boolean hasPrewarmableParameters(Job<?, ?> job) {
+        final ParametersDefinitionProperty property = job.getProperty(ParametersDefinitionProperty.class);
+        return property != null && property.getParameterDefinitions().stream().anyMatch(CachePrewarmer::isPrewarmable);
+    }
+
+    private static boolean isPrewarmable(ParameterDefinition definition) {
+        if (!(definition instanceof AbstractScriptableParameter)
+                || !((AbstractScriptableParameter) definition).isChoicesCacheEnabled()) {
+            return false;
+        }
+        if (definition instanceof AbstractCascadableParameter) {
+            return StringUtils.isBlank(((AbstractCascadableParameter) definition).getReferencedParameters());
+        }
+        return true;
+    }
+
+    /**
+     * @return number of parameters pre-warmed
+     */
+    public static long getPrewarmedCount() {
+        return PREWARMED.get();
+    }
+
+    /**
+     * @return number of jobs waiting to be pre-warmed
+     */
+    public static int getQueueSize() {
+        return EXECUTOR.getQueue().size();
+    }
+
+    /**
+     * Pre-warms every job when Jenkins starts, and new jobs.
+     */
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onLoaded() {
+            if (!ENABLED) {
+                return;
+            }
+            for (Job<?, ?> job : Jenkins.get().allItems(Job.class)) {
+                schedule(job);
+            }
+        }
+
+        @Override
+        public void onCreated(Item item) {
+            if (item instanceof Job) {
+                schedule((Job<?, ?>) item);
+            }
+        }
+    }
+
+    /**
+     * Pre-warms jobs when their configuration is saved.
+     */
+    @Extension
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Job) {
+                schedule((Job<?, ?>) o);
+            }
+        }
+    }
+}
@@ -0,0 +1,483 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.biouno.unochoice.util.ScriptEvaluationExecutor;
+import org.biouno.unochoice.util.Utils;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+
+/**
+ * <p>The dependency graph of the cascadable parameters of a job, built once for each version of the job
+ * parameters, when the job is saved or on first use. Parameters referencing each other in a cycle are reported
+ * when the job is saved, and never evaluated by cascade updates.</p>
+ *
+ * <p>Used to evaluate, in a single request, every parameter affected by a change in the UI. The affected
+ * parameters are evaluated in waves: each wave only contains parameters whose referenced parameters were
+ * evaluated in previous waves, so the parameters of a wave are independent and evaluated concurrently, on the
+ * {@link ScriptEvaluationExecutor}.</p>
+ *
+ * @since 2.8.10
+ */
+final class CascadeGraph {
+
+    private static final Logger LOGGER = Logger.getLogger(CascadeGraph.class.getName());
+
+    /**
+     * Graph of each job, by job full name.
+     */
+    private static final Map<String, CascadeGraph> GRAPHS = new ConcurrentHashMap<>();
+
+    /**
+     * The parameter definitions the graph was built from, compared by identity with those of the job, as they are
+     * replaced when the job is configured.
+     */
+    private final List<ParameterDefinition> definitions;
+
+    /**
+     * Cascadable parameters by name, in the order of the job definition.
+     */
+    private final Map<String, AbstractCascadableParameter> parameters = new LinkedHashMap<>();
+
+    /**
+     * Names of the parameters referenced by each cascadable parameter.
+     */
+    private final Map<String, Set<String>> references = new HashMap<>();
+
+    /**
+     * Names of the cascadable parameters that reference each parameter.
+     */
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+
+    /**
+     * Names of the parameters in a cycle, or referencing a parameter in a cycle.
+     */
+    private final Set<String> cyclic;
+
+    private CascadeGraph(List<ParameterDefinition> definitions) {
+        this.definitions = definitions;
+        for (ParameterDefinition definition : definitions) {
+            if (definition instanceof AbstractCascadableParameter) {
+                final AbstractCascadableParameter parameter = (AbstractCascadableParameter) definition;
+                parameters.put(parameter.getName(), parameter);
+                final Set<String> referenced = referencedNames(parameter.getReferencedParameters());
+                references.put(parameter.getName(), referenced);
+                for (String name : referenced) {
+                    dependents.computeIfAbsent(name, k -> new LinkedHashSet<>()).add(parameter.getName());
+                }
+            }
+        }
+        final Set<String> sorted = new LinkedHashSet<>();
+        for (List<String> wave : sort(parameters.keySet(), null)) {
+            sorted.addAll(wave);
+        }
+        final Set<String> unsorted = new LinkedHashSet<>(parameters.keySet());
+        unsorted.removeAll(sorted);
+        this.cyclic = Collections.unmodifiableSet(unsorted);
+    }
+
+    /**
+     * @param definitions parameter definitions of a job
+     * @return the graph of the cascadable parameters among the definitions
+     */
+    static CascadeGraph of(@NonNull List<ParameterDefinition> definitions) {
+        return new CascadeGraph(definitions);
+    }
+
+    /**
+     * @param job a job
+     * @return the graph of the cascadable parameters of the job, built again only if its parameters changed
+     */
+    static CascadeGraph of(@NonNull Job<?, ?> job) {
+        final List<ParameterDefinition> definitions = Utils.getJobParameterDefinitions(job);
+        final CascadeGraph graph = GRAPHS.get(job.getFullName());
+        if (graph != null && graph.definitions == definitions) {
+            return graph;
+        }
+        return build(job, definitions);
+    }
+
+    private static CascadeGraph build(Job<?, ?> job, List<ParameterDefinition> definitions) {
+        final CascadeGraph graph = new CascadeGraph(definitions);
+        if (graph.parameters.isEmpty()) {
+            GRAPHS.remove(job.getFullName());
+        } else {
+            GRAPHS.put(job.getFullName(), graph);
+        }
+        if (!graph.cyclic.isEmpty()) {
+            LOGGER.log(Level.WARNING, String.format("The parameters %s of job '%s' reference each other in a cycle, "
+                    + "they are not updated when the parameters they reference change", graph.cyclic, job.getFullName()));
+        }
+        return graph;
+    }
+
+    /**
+     * @param referencedParameters comma separated list of referenced parameters
+     * @return the names of the referenced parameters
+     */
+    static Set<String> referencedNames(String referencedParameters) {
+        if (StringUtils.isBlank(referencedParameters)) {
+            return Collections.emptySet();
+        }
+        final Set<String> names = new LinkedHashSet<>();
+        for (String name : referencedParameters.split(",")) {
+            name = name.trim();
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return the names of the parameters in a cycle, or referencing a parameter in a cycle
+     */
+    Set<String> getCyclicParameters() {
+        return cyclic;
+    }
+
+    /**
+     * Returns the cascadable parameters affected by a change of the given parameter, in waves of parameters that
+     * only reference parameters of previous waves. The parameters referencing a {@link DynamicReferenceParameter}
+     * are not followed, as its value is only known once its HTML is rendered in the UI. The parameters in a cycle
+     * are left out.
+     *
+     * @param name name of the changed parameter
+     * @return the affected parameters, in evaluation waves
+     */
+    List<List<AbstractCascadableParameter>> downstreamOf(@NonNull String name) {
+        final Set<String> affected = new LinkedHashSet<>();
+        final Deque<String> pending = new ArrayDeque<>();
+        pending.add(name);
+        while (!pending.isEmpty()) {
+            final String current = pending.poll();
+            if (!current.equals(name) && isDynamicReference(current)) {
+                continue;
+            }
+            for (String dependent : dependents.getOrDefault(current, Collections.emptySet())) {
+                if (!dependent.equals(name) && affected.add(dependent)) {
+                    pending.add(dependent);
+                }
+            }
+        }
+        affected.removeAll(cyclic);
+        final List<List<AbstractCascadableParameter>> waves = new ArrayList<>();
+        for (List<String> names : sort(affected, name)) {
+            final List<AbstractCascadableParameter> wave = new ArrayList<>(names.size());
+            for (String parameterName : names) {
+                wave.add(parameters.get(parameterName));
+            }
+            waves.add(wave);
+        }
+        return waves;
+    }
+
+    /**
+     * Sorts the given parameters in waves (Kahn's algorithm), keeping the order of the job definition in each
+     * wave. Only the references between the given parameters count, except references to a
+     * {@link DynamicReferenceParameter} other than the changed one. The parameters in a cycle are left out.
+     *
+     * @param names names of the parameters to sort
+     * @param changed name of the changed parameter, if any
+     * @return the names of the parameters, in waves
+     */
+    private List<List<String>> sort(Set<String> names, @CheckForNull String changed) {
+        final Map<String, Integer> inDegree = new LinkedHashMap<>();
+        for (String parameterName : parameters.keySet()) {
+            if (names.contains(parameterName)) {
+                int degree = 0;
+                for (String referenced : references.get(parameterName)) {
+                    if (names.contains(referenced) && (changed == null || !isDynamicReference(referenced))) {
+                        degree++;
+                    }
+                }
+                inDegree.put(parameterName, degree);
+            }
+        }
+        final List<List<String>> waves = new ArrayList<>();
+        List<String> wave = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : inDegree.entrySet()) {
+            if (entry.getValue() == 0) {
+                wave.add(entry.getKey());
+            }
+        }
+        while (!wave.isEmpty()) {
+            waves.add(wave);
+            final Set<String> next = new LinkedHashSet<>();
+            for (String current : wave) {
+                if (changed != null && isDynamicReference(current)) {
+                    continue;
+                }
+                for (String dependent : dependents.getOrDefault(current, Collections.emptySet())) {
+                    final Integer degree = inDegree.get(dependent);
+                    if (degree != null && degree > 0) {
+                        inDegree.put(dependent, degree - 1);
+                        if (degree == 1) {
+                            next.add(dependent);
+                        }
+                    }
+                }
+            }
+            // keep the order of the job definition
+            wave = new ArrayList<>();
+            for (String parameterName : inDegree.keySet()) {
+                if (next.contains(parameterName)) {
+                    wave.add(parameterName);
+                }
+            }
+        }
+        return waves;
+    }
+
+    private boolean isDynamicReference(String name) {
+        return parameters.get(name) instanceof DynamicReferenceParameter;
+    }
+
+    /**
+     * Evaluates the parameters affected by a change of the given parameter, wave by wave. The parameters of a wave
+     * are evaluated concurrently, one of them in the current thread, and the others on the
+     * {@link ScriptEvaluationExecutor} (or in the current thread if its queue is full). The parameters whose
+     * displayed value is only known once rendered stop the evaluation of the parameters that reference them, updated
+     * by the UI afterwards.
+     *
+     * @param name name of the changed parameter
+     * @param values values of the parameters in the UI, updated with the values displayed for the evaluated
+     * parameters
+     * @param knownHashes hashes of the choices displayed in the UI by parameter name; the parameters whose choices
+     * keep the same hash are not rendered again, and keep the value sent by the UI
+     * @return the evaluation of each affected parameter, by parameter name
+     */
+    Map<String, Result> evaluate(@NonNull String name, @NonNull Map<String, String> values,
+            @NonNull Map<String, String> knownHashes) {
+        final Map<String, Result> evaluated = new LinkedHashMap<>();
+        // parameters whose value is only known once rendered, and the parameters referencing them, updated by the UI
+        final Set<String> unresolved = new HashSet<>();
+        for (List<AbstractCascadableParameter> affected : downstreamOf(name)) {
+            final List<AbstractCascadableParameter> wave = new ArrayList<>(affected.size());
+            for (AbstractCascadableParameter parameter : affected) {
+                if (Collections.disjoint(references.get(parameter.getName()), unresolved)) {
+                    wave.add(parameter);
+                } else {
+                    unresolved.add(parameter.getName());
+                }
+            }
+            if (wave.isEmpty()) {
+                continue;
+            }
+            // the parameters in the UI are updated in this thread, that serves the request
+            final List<Evaluation> evaluations = new ArrayList<>(wave.size());
+            for (AbstractCascadableParameter parameter : wave) {
+                evaluations.add(parameter.prepareCascade(values));
+            }
+            final List<Future<Result>> futures = new ArrayList<>(wave.size());
+            for (int i = 1; i < evaluations.size(); i++) {
+                futures.add(submit(evaluations.get(i).primary));
+            }
+            final List<Result> results = new ArrayList<>(wave.size());
+            results.add(call(evaluations.get(0).primary));
+            for (int i = 1; i < evaluations.size(); i++) {
+                results.add(get(wave.get(i), futures.get(i - 1), evaluations.get(i)));
+            }
+            for (int i = 0; i < wave.size(); i++) {
+                final String evaluatedName = wave.get(i).getName();
+                final Result result = results.get(i);
+                evaluated.put(evaluatedName, result);
+                if (result.hash.equals(knownHashes.get(evaluatedName))) {
+                    // not rendered again, the UI keeps displaying the value it sent
+                    continue;
+                }
+                if (result.value != null) {
+                    values.put(evaluatedName, result.value);
+                } else {
+                    unresolved.add(evaluatedName);
+                }
+            }
+        }
+        return evaluated;
+    }
+
+    @CheckForNull
+    private static Future<Result> submit(Callable<Result> evaluation) {
+        try {
+            return ScriptEvaluationExecutor.INSTANCE.submit(evaluation);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private static Result get(AbstractCascadableParameter parameter, @CheckForNull Future<Result> future,
+            Evaluation evaluation) {
+        if (future == null) {
+            return call(evaluation.primary);
+        }
+        try {
+            // the script runs in the evaluation thread, that cannot time it out itself
+            final long timeout = parameter.getEffectiveEvaluationTimeout();
+            return timeout > 0 ? future.get(timeout, TimeUnit.SECONDS) : future.get();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            LOGGER.log(Level.WARNING, String.format("Cascade evaluation of parameter '%s' timed out, using the fallback "
+                    + "script", parameter.getName()));
+            return call(evaluation.fallback);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Result call(Callable<Result> evaluation) {
+        try {
+            return evaluation.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Removes the graphs of every job.
+     */
+    static void invalidate() {
+        GRAPHS.clear();
+    }
+
+    /**
+     * The evaluation of a parameter for a cascade update, by its script, or by its fallback script when the script
+     * timed out.
+     */
+    static final class Evaluation {
+        private final Callable<Result> primary;
+        private final Callable<Result> fallback;
+
+        Evaluation(Callable<Result> primary, Callable<Result> fallback) {
+            this.primary = primary;
+            this.fallback = fallback;
+        }
+    }
+
+    /**
+     * The result of the evaluation of a parameter for a cascade update.
+     */
+    static final class Result {
+        private final Object choices;
+        @CheckForNull
+        private final String value;
+        private final String hash;
+
+        /**
+         * @param choices the choices for the UI
+         * @param value the value displayed in the UI for the parameter, or {@code null} if only known once rendered
+         */
+        Result(Object choices, @CheckForNull String value) {
+            this.choices = choices;
+            this.value = value;
+            // hashed in the evaluation thread
+            this.hash = AbstractCascadableParameter.getChoicesHash(choices);
+        }
+
+        Object getChoices() {
+            return choices;
+        }
+
+        @CheckForNull
+        String getValue() {
+            return value;
+        }
+
+        String getHash() {
+            return hash;
+        }
+    }
+
+    /**
+     * Builds the graph of a job, and reports its cycles, when the job is saved.
+     */
+    @Extension
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Job) {
+                final Job<?, ?> job = (Job<?, ?>) o;
+                build(job, Utils.getJobParameterDefinitions(job));
+            }
+        }
+    }
+
+    /**
+     * Removes the graphs of deleted, moved, or reloaded jobs.
+     */
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onLoaded() {
+            invalidate();
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            GRAPHS.remove(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            GRAPHS.remove(oldFullName);
+        }
+    }
+}
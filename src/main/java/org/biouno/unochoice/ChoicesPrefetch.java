@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.biouno.unochoice.util.ScriptEvaluationExecutor;
+import org.biouno.unochoice.util.Utils;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest2;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.AbstractItem;
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>The evaluations of the parameters of a job, started together when the first parameter of the build page is
+ * rendered, instead of one after the other as each parameter is rendered.</p>
+ *
+ * <p>When the page is rendered, the parameters are evaluated without the values of the parameters they reference,
+ * so their evaluations are independent. They are submitted to the {@link ScriptEvaluationExecutor}, and each
+ * parameter joins its own evaluation when rendered. It is stored as a request attribute, and can be disabled with
+ * the {@code disabled} system property, prefixed by this class name.</p>
+ *
+ * @since 2.8.10
+ */
+final class ChoicesPrefetch {
+
+    private static final Logger LOGGER = Logger.getLogger(ChoicesPrefetch.class.getName());
+
+    static final boolean DISABLED = SystemProperties.getBoolean(ChoicesPrefetch.class.getName() + ".disabled");
+
+    private static final String ATTRIBUTE = ChoicesPrefetch.class.getName();
+
+    /**
+     * Evaluations by parameter instance.
+     */
+    private final Map<AbstractScriptableParameter, Future<Object>> evaluations =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private ChoicesPrefetch() {
+    }
+
+    /**
+     * Starts the evaluation of every parameter of the job of the current request, if not started yet.
+     */
+    static void start() {
+        if (DISABLED) {
+            return;
+        }
+        final StaplerRequest2 request = Stapler.getCurrentRequest2();
+        if (request == null || request.getAttribute(ATTRIBUTE) != null) {
+            return;
+        }
+        final ChoicesPrefetch prefetch = new ChoicesPrefetch();
+        request.setAttribute(ATTRIBUTE, prefetch);
+        final ProjectContext context = ProjectContext.current();
+        final AbstractItem item = context != null ? context.getItem() : null;
+        if (!(item instanceof Job)) {
+            return;
+        }
+        final List<AbstractScriptableParameter> parameters = new ArrayList<>();
+        for (ParameterDefinition definition : Utils.getJobParameterDefinitions((Job<?, ?>) item)) {
+            if (definition instanceof AbstractScriptableParameter) {
+                parameters.add((AbstractScriptableParameter) definition);
+            }
+        }
+        // a single parameter is evaluated as usual, when rendered
+        if (parameters.size() > 1) {
+            parameters.forEach(prefetch::submit);
+        }
+    }
+
+    private void submit(AbstractScriptableParameter parameter) {
+        try {
+            evaluations.put(parameter, ScriptEvaluationExecutor.INSTANCE.submit(parameter::evalForPage));
+        } catch (RejectedExecutionException e) {
+            // evaluated when rendered
+            LOGGER.log(Level.FINE, String.format("Evaluation of parameter '%s' not started, queue is full", parameter.getName()));
+        }
+    }
+
+    /**
+     * Joins the evaluation of the given parameter started for the current request, if any. Each evaluation is only
+     * joined once.
+     *
+     * @param parameter the parameter
+     * @param absent returned if there is no evaluation for the parameter
+     * @param timedOut returned if the evaluation did not complete in time (it is then cancelled), so that the
+     * script is not evaluated again
+     * @return the result of the evaluation, {@code absent} or {@code timedOut}
+     */
+    @CheckForNull
+    static Object join(@NonNull AbstractScriptableParameter parameter, @CheckForNull Object absent,
+            @CheckForNull Object timedOut) {
+        final StaplerRequest2 request = Stapler.getCurrentRequest2();
+        if (request == null) {
+            return absent;
+        }
+        final Object attribute = request.getAttribute(ATTRIBUTE);
+        if (!(attribute instanceof ChoicesPrefetch)) {
+            return absent;
+        }
+        final Future<Object> evaluation = ((ChoicesPrefetch) attribute).evaluations.remove(parameter);
+        if (evaluation == null) {
+            return absent;
+        }
+        try {
+            // the script runs in the evaluation thread, that cannot time it out itself
+            final long timeout = parameter.getEffectiveEvaluationTimeout();
+            return timeout > 0 ? evaluation.get(timeout, TimeUnit.SECONDS) : evaluation.get();
+        } catch (TimeoutException e) {
+            evaluation.cancel(true);
+            LOGGER.log(Level.WARNING, String.format("Evaluation of parameter '%s' timed out, using the fallback script",
+                    parameter.getName()));
+            return timedOut;
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.FINE, String.format("Evaluation of parameter '%s' failed", parameter.getName()), e.getCause());
+            return absent;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return absent;
+        }
+    }
+}
@@ -24,8 +24,11 @@
 
 package org.biouno.unochoice;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -37,6 +40,7 @@ import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest2;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.Extension;
 import hudson.model.AbstractProject;
 import hudson.model.ParameterDefinition;
@@ -130,6 +134,55 @@ public class DynamicReferenceParameter extends AbstractCascadableParameter {
         return getChoicesAsString(getParameters());
     }
 
+    /*
+     * (non-Javadoc)
+     * @see org.biouno.unochoice.AbstractCascadableParameter#getChoicesHashForUI()
+     */
+    @Override
+    public String getChoicesHashForUI() {
+        // the lists are updated with the choices, the other elements with the choices as a string
+        if (ELEMENT_TYPE_ORDERED_LIST.equals(choiceType) || ELEMENT_TYPE_UNORDERED_LIST.equals(choiceType)) {
+            return super.getChoicesHashForUI();
+        }
+        return getChoicesHash(getChoicesAsStringForUI());
+    }
+
+    /**
+     * Updates the parameters in the UI and returns the new choices as a string, in a single call from the UI. The
+     * hash of the choices is sent in the {@code ETag} header, and if it is the hash of the choices displayed in the
+     * UI, the response is {@code 304 Not Modified}, without a body.
+     *
+     * @param parameters values of the referenced parameters by name, each one a value or an array of values
+     * @param hash hash of the choices displayed in the UI, or {@code null}
+     * @return the choices, as in {@link #getChoicesAsStringForUI()}
+     * @since 2.8.10
+     */
+    @JavaScriptMethod
+    public String updateAndGetChoicesAsStringForUI(JSONObject parameters, @CheckForNull String hash) {
+        updateParameters(parseParameters(parameters));
+        return ifModified(getChoicesAsStringForUI(), hash);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.biouno.unochoice.AbstractCascadableParameter#prepareCascade(java.util.Map)
+     */
+    @Override
+    CascadeGraph.Evaluation prepareCascade(Map<String, String> values) {
+        updateParameters(referencedValues(values));
+        // the parameters of the user session are only available in this thread
+        final Map<Object, Object> parameters = new LinkedHashMap<>(getParameters());
+        // the value of this parameter is only known once rendered in the UI
+        if (ELEMENT_TYPE_ORDERED_LIST.equals(choiceType) || ELEMENT_TYPE_UNORDERED_LIST.equals(choiceType)) {
+            return new CascadeGraph.Evaluation(() -> {
+                final AtomicLong staleMillis = new AtomicLong();
+                return new CascadeGraph.Result(toUI(getChoices(parameters, staleMillis), staleMillis.get()), null);
+            }, () -> new CascadeGraph.Result(toUI(getFallbackChoices(parameters), 0), null));
+        }
+        return new CascadeGraph.Evaluation(() -> new CascadeGraph.Result(getChoicesAsString(parameters), null),
+                () -> new CascadeGraph.Result(getFallbackChoicesAsString(parameters), null));
+    }
+
     // --- descriptor
 
     @Extension
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.kohsuke.stapler.Ancestor;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest2;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.AbstractItem;
+import hudson.model.Job;
+import hudson.model.Run;
+import jenkins.model.Jenkins;
+
+/**
+ * <p>The project of the current HTTP request, resolved once and shared by every parameter evaluated in that
+ * request (e.g. the parameters of the build page, or a cascade update), instead of each parameter walking the
+ * request ancestors and resolving its project again.</p>
+ *
+ * <p>It is stored as a request attribute. The jobs and last builds are resolved lazily, when a script first
+ * needs them, possibly in an evaluation thread.</p>
+ *
+ * @since 2.8.10
+ */
+final class ProjectContext {
+
+    private static final String ATTRIBUTE = ProjectContext.class.getName();
+
+    @CheckForNull
+    private final AbstractItem item;
+
+    private final Map<String, Optional<Job<?, ?>>> jobs = new ConcurrentHashMap<>();
+
+    private final Map<String, Optional<Run<?, ?>>> builds = new ConcurrentHashMap<>();
+
+    private ProjectContext(@CheckForNull AbstractItem item) {
+        this.item = item;
+    }
+
+    /**
+     * @return the context of the current request, created on first use, or {@code null} if there is no current
+     * request
+     */
+    static @CheckForNull ProjectContext current() {
+        final StaplerRequest2 request = Stapler.getCurrentRequest2();
+        if (request == null) {
+            return null;
+        }
+        final Object attribute = request.getAttribute(ATTRIBUTE);
+        if (attribute instanceof ProjectContext) {
+            return (ProjectContext) attribute;
+        }
+        AbstractItem item = null;
+        final Ancestor ancestor = request.findAncestor(AbstractItem.class);
+        if (ancestor != null && ancestor.getObject() instanceof AbstractItem) {
+            item = (AbstractItem) ancestor.getObject();
+        }
+        final ProjectContext context = new ProjectContext(item);
+        request.setAttribute(ATTRIBUTE, context);
+        return context;
+    }
+
+    /**
+     * @return the item of the current request, if any
+     */
+    @CheckForNull
+    AbstractItem getItem() {
+        return item;
+    }
+
+    /**
+     * @param fullName job full name
+     * @return the job, resolved once per request, or {@code null} if not found
+     */
+    @CheckForNull
+    Job<?, ?> getJob(@NonNull String fullName) {
+        return jobs.computeIfAbsent(fullName,
+                name -> Optional.<Job<?, ?>>ofNullable(Jenkins.get().getItemByFullName(name, Job.class))).orElse(null);
+    }
+
+    /**
+     * @param job a job
+     * @return the last build of the job if it has artifacts, resolved once per request, or {@code null}
+     */
+    @CheckForNull
+    Run<?, ?> getLastBuildWithArtifacts(@NonNull Job<?, ?> job) {
+        return builds.computeIfAbsent(job.getFullName(), name -> Optional.ofNullable(lastBuildWithArtifacts(job))).orElse(null);
+    }
+
+    /**
+     * @param job a job
+     * @return the last build of the job if it has artifacts, or {@code null}
+     */
+    @CheckForNull
+    static Run<?, ?> lastBuildWithArtifacts(@NonNull Job<?, ?> job) {
+        // may load the build records from disk
+        final Run<?, ?> build = job.getLastBuild();
+        return build != null && build.getHasArtifacts() ? build : null;
+    }
+}
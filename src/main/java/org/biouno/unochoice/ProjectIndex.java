@@ -0,0 +1,343 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.biouno.unochoice.util.Utils;
+import org.springframework.security.core.Authentication;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import hudson.model.Project;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.model.Jenkins;
+
+/**
+ * <p>In-memory index of the projects that define each parameter (by its random name, or UUID), and of the
+ * projects by their short name, used to find the project of a parameter without scanning every project of
+ * Jenkins. Every type of job is indexed (e.g. Pipeline jobs, and the branch jobs of multibranch projects).</p>
+ *
+ * <p>The index is built lazily, on the first look up after Jenkins loaded its items, and then kept current by
+ * item events (created, copied, updated, saved, renamed or moved, and deleted). Look ups still check that the
+ * current user can read the project.</p>
+ *
+ * <p>Parameters persisted without the full name of their project (i.e. with only its short name, or with no
+ * project name at all) are given the full name of the project that defines them when it is indexed, so that
+ * their project is then found by its full name.</p>
+ *
+ * @since 2.8.10
+ */
+public final class ProjectIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(ProjectIndex.class.getName());
+
+    /**
+     * Parameter random name to the full names of the projects defining it.
+     */
+    private static final Map<String, Set<String>> PROJECTS_BY_PARAMETER = new ConcurrentHashMap<>();
+
+    /**
+     * Project full name to the random names of its parameters, used to update the index.
+     */
+    private static final Map<String, Set<String>> PARAMETERS_BY_PROJECT = new HashMap<>();
+
+    /**
+     * Project short name to the full names of the projects with that name.
+     */
+    private static final Map<String, Set<String>> PROJECTS_BY_NAME = new ConcurrentHashMap<>();
+
+    private static volatile boolean built;
+
+    private ProjectIndex() {
+    }
+
+    /**
+     * Finds the project that defines a parameter.
+     *
+     * @param parameterUUID parameter random name
+     * @return the first project, by full name, defining the parameter and readable by the current user, or
+     * {@code null} if none
+     */
+    @SuppressWarnings("rawtypes")
+    public static @CheckForNull Project findProjectByParameterUUID(@NonNull String parameterUUID) {
+        ensureBuilt();
+        return (Project) find(PROJECTS_BY_PARAMETER.get(parameterUUID), Project.class, parameterUUID);
+    }
+
+    /**
+     * Finds the job, of any type (e.g. a Pipeline job), that defines a parameter.
+     *
+     * @param parameterUUID parameter random name
+     * @return the first job, by full name, defining the parameter and readable by the current user, or
+     * {@code null} if none
+     */
+    public static @CheckForNull Job<?, ?> findJobByParameterUUID(@NonNull String parameterUUID) {
+        ensureBuilt();
+        return find(PROJECTS_BY_PARAMETER.get(parameterUUID), Job.class, parameterUUID);
+    }
+
+    /**
+     * Finds a project by its short name.
+     *
+     * @param projectName project short name
+     * @return the first project, by full name, with this name and readable by the current user, or {@code null}
+     * if none
+     */
+    public static @CheckForNull Project<?, ?> getProjectByName(@NonNull String projectName) {
+        ensureBuilt();
+        return (Project<?, ?>) find(PROJECTS_BY_NAME.get(projectName), Project.class, null);
+    }
+
+    /**
+     * Finds a job, of any type, by its short name.
+     *
+     * @param jobName job short name
+     * @return the first job, by full name, with this name and readable by the current user, or {@code null} if
+     * none
+     */
+    public static @CheckForNull Job<?, ?> getJobByName(@NonNull String jobName) {
+        ensureBuilt();
+        return find(PROJECTS_BY_NAME.get(jobName), Job.class, null);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Job<?, ?> find(@CheckForNull Set<String> fullNames, Class<? extends Job> type, @CheckForNull String parameterUUID) {
+        if (fullNames == null) {
+            return null;
+        }
+        final Authentication auth = Jenkins.getAuthentication2();
+        for (String fullName : snapshot(fullNames)) {
+            final Job<?, ?> job;
+            try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+                job = Jenkins.get().getItemByFullName(fullName, type);
+            }
+            if (job != null && (parameterUUID == null || defines(job, parameterUUID))
+                    && job.getACL().hasPermission2(auth, Item.READ)) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    /* Guards against a stale entry, e.g. for a project replaced by another one with the same name. */
+    private static boolean defines(Job<?, ?> job, String parameterUUID) {
+        for (ParameterDefinition definition : getParameterDefinitions(job)) {
+            if (definition instanceof AbstractUnoChoiceParameter
+                    && parameterUUID.equals(((AbstractUnoChoiceParameter) definition).getRandomName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> snapshot(Set<String> fullNames) {
+        synchronized (PARAMETERS_BY_PROJECT) {
+            return new ArrayList<>(fullNames);
+        }
+    }
+
+    private static void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        synchronized (PARAMETERS_BY_PROJECT) {
+            if (built) {
+                return;
+            }
+            final long start = System.nanoTime();
+            PROJECTS_BY_PARAMETER.clear();
+            PARAMETERS_BY_PROJECT.clear();
+            PROJECTS_BY_NAME.clear();
+            for (Job<?, ?> job : Items.allItems2(ACL.SYSTEM2, Jenkins.get(), Job.class)) {
+                index(job);
+            }
+            built = true;
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine(String.format("Indexed %d jobs, %d with parameters, in %d ms", PROJECTS_BY_NAME.size(), PARAMETERS_BY_PROJECT.size(),
+                        (System.nanoTime() - start) / 1_000_000));
+            }
+        }
+    }
+
+    /**
+     * Discards the index, which is rebuilt on the next look up.
+     */
+    public static void invalidate() {
+        synchronized (PARAMETERS_BY_PROJECT) {
+            built = false;
+        }
+    }
+
+    private static void update(Item item) {
+        if (!built) {
+            // will be indexed when the index is built
+            return;
+        }
+        synchronized (PARAMETERS_BY_PROJECT) {
+            if (built) {
+                remove(item.getFullName());
+                if (item instanceof Job) {
+                    index((Job<?, ?>) item);
+                }
+            }
+        }
+    }
+
+    private static void delete(String fullName) {
+        if (!built) {
+            return;
+        }
+        synchronized (PARAMETERS_BY_PROJECT) {
+            remove(fullName);
+        }
+    }
+
+    /* Must be called holding the PARAMETERS_BY_PROJECT lock. */
+    private static void index(Job<?, ?> job) {
+        final String fullName = job.getFullName();
+        PROJECTS_BY_NAME.computeIfAbsent(job.getName(), name -> new TreeSet<>()).add(fullName);
+        final Set<String> parameterUUIDs = new TreeSet<>();
+        for (ParameterDefinition definition : getParameterDefinitions(job)) {
+            if (definition instanceof AbstractUnoChoiceParameter) {
+                parameterUUIDs.add(((AbstractUnoChoiceParameter) definition).getRandomName());
+            }
+            if (definition instanceof AbstractScriptableParameter) {
+                ((AbstractScriptableParameter) definition).rememberIndexedProject(job);
+            }
+        }
+        if (parameterUUIDs.isEmpty()) {
+            return;
+        }
+        PARAMETERS_BY_PROJECT.put(fullName, parameterUUIDs);
+        for (String parameterUUID : parameterUUIDs) {
+            PROJECTS_BY_PARAMETER.computeIfAbsent(parameterUUID, uuid -> new TreeSet<>()).add(fullName);
+        }
+    }
+
+    /* Must be called holding the PARAMETERS_BY_PROJECT lock. */
+    private static void remove(String fullName) {
+        final String name = fullName.substring(fullName.lastIndexOf('/') + 1);
+        final Set<String> sameName = PROJECTS_BY_NAME.get(name);
+        if (sameName != null) {
+            sameName.remove(fullName);
+            if (sameName.isEmpty()) {
+                PROJECTS_BY_NAME.remove(name);
+            }
+        }
+        final Set<String> parameterUUIDs = PARAMETERS_BY_PROJECT.remove(fullName);
+        if (parameterUUIDs == null) {
+            return;
+        }
+        for (String parameterUUID : parameterUUIDs) {
+            final Set<String> fullNames = PROJECTS_BY_PARAMETER.get(parameterUUID);
+            if (fullNames != null) {
+                fullNames.remove(fullName);
+                if (fullNames.isEmpty()) {
+                    PROJECTS_BY_PARAMETER.remove(parameterUUID);
+                }
+            }
+        }
+    }
+
+    private static List<ParameterDefinition> getParameterDefinitions(Job<?, ?> job) {
+        final List<ParameterDefinition> definitions = new ArrayList<>(Utils.getJobParameterDefinitions(job));
+        if (job instanceof Project) {
+            for (List<ParameterDefinition> wrapperDefinitions : Utils.getBuildWrapperParameterDefinitions((Project<?, ?>) job).values()) {
+                definitions.addAll(wrapperDefinitions);
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * Keeps the index current when items change.
+     */
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onLoaded() {
+            invalidate();
+        }
+
+        @Override
+        public void onCreated(Item item) {
+            update(item);
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            update(item);
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            update(item);
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            delete(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            delete(oldFullName);
+            update(item);
+        }
+    }
+
+    /**
+     * Keeps the index current when jobs are saved without an item event, e.g. when a property is added.
+     */
+    @Extension
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Job) {
+                update((Job<?, ?>) o);
+            }
+        }
+    }
+}
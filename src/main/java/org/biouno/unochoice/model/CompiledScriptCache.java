@@ -0,0 +1,342 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.model;
+
+import java.beans.Introspector;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.RejectedAccessException;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.Whitelist;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.GroovySandbox;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.whitelists.ClassLoaderWhitelist;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.whitelists.ProxyWhitelist;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ApprovalContext;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyShell;
+import groovy.lang.GroovySystem;
+import groovy.lang.Script;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>A bounded (LRU) cache of compiled Groovy script classes, shared by every {@link GroovyScript}.</p>
+ *
+ * <p>Entries are keyed by the script content, the sandbox flag, and the class loader used to compile
+ * the script. Identical scripts used by different parameters and jobs (e.g. the same fallback script)
+ * are compiled only once, and each evaluation only creates a new script instance for its own
+ * {@link Binding}.</p>
+ *
+ * <p>Security checks are still performed on every evaluation. Scripts that are not sandboxed must be
+ * approved, as in {@link SecureGroovyScript#evaluate(ClassLoader, Binding, hudson.model.TaskListener)},
+ * and sandboxed scripts are compiled with the sandbox transformer and executed within the sandbox, with
+ * the classes defined by the script whitelisted, as by {@link SecureGroovyScript}. The other scripts are compiled
+ * with the base compiler configuration of script-security, as by {@link SecureGroovyScript}. The class loaders of the
+ * evicted classes are cleaned up once no evaluation uses them anymore. Scripts with additional classpath entries
+ * are not cached.</p>
+ *
+ * @since 2.8.10
+ */
+public final class CompiledScriptCache {
+
+    private static final Logger LOGGER = Logger.getLogger(CompiledScriptCache.class.getName());
+
+    /**
+     * Maximum number of compiled script classes kept in the cache.
+     */
+    static final int MAX_SIZE = SystemProperties.getInteger(CompiledScriptCache.class.getName() + ".maxSize", 500);
+
+    public static final CompiledScriptCache INSTANCE = new CompiledScriptCache(MAX_SIZE);
+
+    private final Map<Key, Compiled> classes;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    CompiledScriptCache(final int maxSize) {
+        this.classes = new LinkedHashMap<Key, Compiled>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Compiled> eldest) {
+                if (size() > maxSize) {
+                    if (eldest.getValue().evict()) {
+                        cleanUp(eldest.getValue().loader);
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Evaluates the given script, re-using a previously compiled class when available.
+     *
+     * @param secureScript the script to evaluate
+     * @param cl class loader used to compile the script
+     * @param binding the script binding
+     * @return the script return value
+     * @throws Exception if the script is not approved, is rejected by the sandbox, or fails
+     */
+    public Object evaluate(SecureGroovyScript secureScript, ClassLoader cl, Binding binding) throws Exception {
+        if (!secureScript.getClasspath().isEmpty()) {
+            return secureScript.evaluate(cl, binding, null);
+        }
+        final String text = secureScript.getScript();
+        final boolean sandbox = secureScript.isSandbox();
+        if (!sandbox) {
+            // same check done by SecureGroovyScript; throws UnapprovedUsageException
+            ScriptApproval.get().using(text, GroovyLanguage.get());
+        }
+        final Compiled compiled = getCompiled(text, sandbox, cl);
+        try {
+            final Script script = InvokerHelper.createScript(compiled.scriptClass, binding);
+            if (!sandbox) {
+                return script.run();
+            }
+            final ApprovalContext context = ApprovalContext.create();
+            // the classes and methods defined by the script, as whitelisted by SecureGroovyScript
+            final Whitelist whitelist = new ProxyWhitelist(Whitelist.all(), new ClassLoaderWhitelist(compiled.loader));
+            try (GroovySandbox.Scope scope = new GroovySandbox().withWhitelist(whitelist).withApprovalContext(context).enter()) {
+                return script.run();
+            } catch (RejectedAccessException e) {
+                throw ScriptApproval.get().accessRejected(e, context);
+            }
+        } finally {
+            release(compiled);
+        }
+    }
+
+    /**
+     * Ends an evaluation of the given compiled class, cleaning up its class loader if it was evicted in the
+     * meantime and this was its last evaluation.
+     *
+     * @param compiled the compiled class returned by {@link #getCompiled(String, boolean, ClassLoader)}
+     */
+    private void release(Compiled compiled) {
+        final boolean unused;
+        synchronized (classes) {
+            unused = compiled.release();
+        }
+        if (unused) {
+            cleanUp(compiled.loader);
+        }
+    }
+
+    /**
+     * Returns the compiled class of the given script, compiling it if needed. The caller must
+     * {@link #release(Compiled)} it once evaluated, so that its class loader is not cleaned up while in use.
+     *
+     * @param text script text
+     * @param sandbox whether the script runs in the sandbox
+     * @param cl class loader used to compile the script
+     * @return the compiled class, in use by the caller
+     */
+    private Compiled getCompiled(String text, boolean sandbox, ClassLoader cl) {
+        final Key key = new Key(text, sandbox, cl);
+        synchronized (classes) {
+            final Compiled cached = classes.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                cached.users++;
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        // compile outside the lock; concurrent misses for the same script produce equivalent classes
+        final GroovyShell shell = sandbox
+                ? new GroovyShell(GroovySandbox.createSecureClassLoader(cl), GroovySandbox.createSecureCompilerConfiguration())
+                : new GroovyShell(cl, GroovySandbox.createBaseCompilerConfiguration());
+        final Compiled compiled = new Compiled(shell.parse(text).getClass(), shell.getClassLoader());
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(String.format("Compiled script class %s (sandbox: %s)", compiled.scriptClass.getName(), sandbox));
+        }
+        final Compiled previous;
+        synchronized (classes) {
+            previous = classes.putIfAbsent(key, compiled);
+            if (previous == null) {
+                compiled.users++;
+                return compiled;
+            }
+            // never used
+            previous.users++;
+        }
+        cleanUp(compiled.loader);
+        return previous;
+    }
+
+    /**
+     * Releases the classes of a loader that is no longer used, as {@link SecureGroovyScript} does after each
+     * evaluation, so that they can be garbage collected.
+     *
+     * @param loader the class loader of a compiled script
+     */
+    private static void cleanUp(GroovyClassLoader loader) {
+        for (Class<?> loaded : loader.getLoadedClasses()) {
+            Introspector.flushFromCaches(loaded);
+            GroovySystem.getMetaClassRegistry().removeMetaClass(loaded);
+        }
+        loader.clearCache();
+        try {
+            loader.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to close the class loader of a compiled script", e);
+        }
+    }
+
+    /**
+     * @return number of evaluations that re-used a compiled class
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of evaluations that had to compile the script
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of compiled classes currently cached
+     */
+    public int size() {
+        synchronized (classes) {
+            return classes.size();
+        }
+    }
+
+    /**
+     * @return number of classes loaded by the class loaders of the cached scripts: the script classes, and the
+     * classes and closures that they define
+     */
+    public int getLoadedClassCount() {
+        int count = 0;
+        synchronized (classes) {
+            for (Compiled compiled : classes.values()) {
+                count += compiled.loader.getLoadedClasses().length;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Removes every compiled class from the cache. The class loaders of the classes still being evaluated are
+     * cleaned up once their evaluations end.
+     */
+    public void clear() {
+        final List<Compiled> unused = new ArrayList<>();
+        synchronized (classes) {
+            for (Compiled compiled : classes.values()) {
+                if (compiled.evict()) {
+                    unused.add(compiled);
+                }
+            }
+            classes.clear();
+        }
+        for (Compiled compiled : unused) {
+            cleanUp(compiled.loader);
+        }
+    }
+
+    /**
+     * A compiled script class, the class loader of the shell that compiled it, and the number of evaluations
+     * using it. Its state is guarded by the lock of the cache.
+     */
+    private static final class Compiled {
+        private final Class<? extends Script> scriptClass;
+        private final GroovyClassLoader loader;
+        private int users;
+        private boolean evicted;
+
+        Compiled(Class<? extends Script> scriptClass, GroovyClassLoader loader) {
+            this.scriptClass = scriptClass;
+            this.loader = loader;
+        }
+
+        /**
+         * @return whether the class loader can be cleaned up, as no evaluation uses it
+         */
+        boolean evict() {
+            evicted = true;
+            return users == 0;
+        }
+
+        /**
+         * @return whether the class loader can be cleaned up, as it was evicted and this was its last evaluation
+         */
+        boolean release() {
+            users--;
+            return evicted && users == 0;
+        }
+    }
+
+    /**
+     * Cache key. The script text is compared by content (its hash code is cached by {@link String}),
+     * and the class loader by identity.
+     */
+    private static final class Key {
+        private final String text;
+        private final boolean sandbox;
+        private final ClassLoader classLoader;
+        private final int hash;
+
+        Key(String text, boolean sandbox, ClassLoader classLoader) {
+            this.text = text;
+            this.sandbox = sandbox;
+            this.classLoader = classLoader;
+            this.hash = 31 * (31 * text.hashCode() + Boolean.hashCode(sandbox)) + System.identityHashCode(classLoader);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            final Key other = (Key) obj;
+            return sandbox == other.sandbox && classLoader == other.classLoader && text.equals(other.text);
+        }
+    }
+}
@@ -29,7 +29,6 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -38,6 +37,7 @@ import edu.umd.cs.findbugs.annotations.Nullable;
 
 import hudson.model.Descriptor;
 import org.biouno.unochoice.util.SafeHtmlExtendedMarkupFormatter;
+import org.biouno.unochoice.util.Utils;
 import org.jenkinsci.Symbol;
 import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
 import org.jenkinsci.plugins.scriptsecurity.scripts.ApprovalContext;
@@ -45,9 +45,6 @@ import org.kohsuke.stapler.DataBoundConstructor;
 
 import groovy.lang.Binding;
 import hudson.Extension;
-import hudson.PluginManager;
-import hudson.Util;
-import jenkins.model.Jenkins;
 
 /**
  * A Groovy script.
@@ -85,6 +82,11 @@ public class GroovyScript extends AbstractScript {
     @Nullable
     private SecureGroovyScript secureFallbackScript;
 
+    /**
+     * Analysis of the script and of its fallback script, computed once.
+     */
+    private transient volatile ScriptAnalysis analysis;
+
     @Deprecated
     public GroovyScript(String script, String fallbackScript) throws Descriptor.FormException {
         this(new SecureGroovyScript(script, false, null), new SecureGroovyScript(fallbackScript, false, null));
@@ -137,6 +139,26 @@ public class GroovyScript extends AbstractScript {
         return secureFallbackScript;
     }
 
+    /**
+     * Returns the static analysis of the script and of its fallback script, which are evaluated with the
+     * same binding. The scripts are parsed on the first call only.
+     *
+     * @return the variables the scripts may read, and whether they are deterministic
+     * @since 2.8.10
+     */
+    public ScriptAnalysis getAnalysis() {
+        ScriptAnalysis result = analysis;
+        if (result == null) {
+            result = analyze(secureScript).merge(analyze(secureFallbackScript));
+            analysis = result;
+        }
+        return result;
+    }
+
+    private static ScriptAnalysis analyze(SecureGroovyScript secureGroovyScript) {
+        return secureGroovyScript != null ? ScriptAnalysis.analyze(secureGroovyScript.getScript()) : ScriptAnalysis.NONE;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -154,39 +176,28 @@ public class GroovyScript extends AbstractScript {
      */
     @Override
     public Object eval(Map<String, String> parameters) throws RuntimeException {
+        return eval(parameters, Collections.emptyMap());
+    }
+
+    /**
+     * Evaluates the script, with default binding variables that are only used when not present in the
+     * given parameters, and that are not copied into the binding unless the script reads them.
+     *
+     * @param parameters binding parameters
+     * @param defaults default binding variables, e.g. the environment variables
+     * @return output of the script
+     * @throws RuntimeException if the script and its fallback script fail
+     * @since 2.8.10
+     */
+    Object eval(Map<String, String> parameters, Map<String, ?> defaults) throws RuntimeException {
         if (secureScript == null) {
             return null;
         }
-        final Jenkins instance = Jenkins.getInstanceOrNull();
-        ClassLoader cl = null;
-        if (instance != null) {
-            try {
-                PluginManager pluginManager = instance.getPluginManager();
-                cl = pluginManager.uberClassLoader;
-            } catch (Exception e) {
-                LOGGER.log(Level.FINEST, e.getMessage(), e);
-            }
-        }
-        if (cl == null) {
-            cl = Thread.currentThread().getContextClassLoader();
-        }
-
-        final Binding context = new Binding();
-
-        // @SuppressWarnings("unchecked")
-        final Map<String, String> envVars = System.getenv();
-        for (Entry<String, String> parameter : parameters.entrySet()) {
-            Object value = parameter.getValue();
-            if (value != null) {
-                if (value instanceof String) {
-                    value = Util.replaceMacro((String) value, envVars);
-                }
-                context.setVariable(parameter.getKey(), value);
-            }
-        }
+        final ClassLoader cl = getClassLoader();
+        final Binding context = createBinding(parameters, defaults);
 
         try {
-            Object returnValue = secureScript.evaluate(cl, context, null);
+            Object returnValue = CompiledScriptCache.INSTANCE.evaluate(secureScript, cl, context);
             // sanitize the text if running script in sandbox mode
             if (secureScript.isSandbox()) {
                 returnValue = resolveTypeAndSanitize(returnValue);
@@ -194,18 +205,8 @@ public class GroovyScript extends AbstractScript {
             return returnValue;
         } catch (Exception re) {
             if (this.secureFallbackScript != null) {
-                try {
-                    LOGGER.log(Level.FINEST, "Fallback to default script...", re);
-                    Object returnValue = secureFallbackScript.evaluate(cl, context, null);
-                    // sanitize the text if running script in sandbox mode
-                    if (secureFallbackScript.isSandbox()) {
-                        returnValue = resolveTypeAndSanitize(returnValue);
-                    }
-                    return returnValue;
-                } catch (Exception e2) {
-                    LOGGER.log(Level.WARNING, "Error executing fallback script", e2);
-                    throw new RuntimeException("Failed to evaluate fallback script: " + e2.getMessage(), e2);
-                }
+                LOGGER.log(Level.FINEST, "Fallback to default script...", re);
+                return evalFallback(cl, context);
             } else {
                 LOGGER.log(Level.WARNING, "No fallback script configured for '%s'");
                 throw new RuntimeException("Failed to evaluate script: " + re.getMessage(), re);
@@ -213,6 +214,94 @@ public class GroovyScript extends AbstractScript {
         }
     }
 
+    /**
+     * Evaluates only the main script, without falling back to the fallback script when it fails. Used by
+     * callers that decide themselves when to use the fallback script, e.g. the circuit breaker of the parameters.
+     *
+     * @param parameters binding parameters
+     * @return output of the script
+     * @throws Exception if the script is not approved, is rejected by the sandbox, or fails
+     * @since 2.8.10
+     */
+    public Object evalPrimary(Map<String, String> parameters) throws Exception {
+        return evalPrimary(parameters, Collections.emptyMap());
+    }
+
+    /**
+     * Evaluates only the main script, with default binding variables that are only used when not present in the
+     * given parameters (e.g. the global node properties).
+     *
+     * @param parameters binding parameters
+     * @param defaults default binding variables
+     * @return output of the script
+     * @throws Exception if the script is not approved, is rejected by the sandbox, or fails
+     * @since 2.8.10
+     */
+    public Object evalPrimary(Map<String, String> parameters, Map<String, ?> defaults) throws Exception {
+        if (secureScript == null) {
+            return null;
+        }
+        Object returnValue = CompiledScriptCache.INSTANCE.evaluate(secureScript, getClassLoader(),
+                createBinding(parameters, defaults));
+        // sanitize the text if running script in sandbox mode
+        if (secureScript.isSandbox()) {
+            returnValue = resolveTypeAndSanitize(returnValue);
+        }
+        return returnValue;
+    }
+
+    /**
+     * Evaluates only the fallback script, using the given parameters binding parameters. Used when the
+     * main script must not be evaluated, e.g. when its evaluation timed out.
+     *
+     * @param parameters binding parameters
+     * @return output of the fallback script, or {@code null} if there is no fallback script
+     * @throws RuntimeException if the fallback script fails
+     * @since 2.8.10
+     */
+    public Object evalFallback(Map<String, String> parameters) throws RuntimeException {
+        return evalFallback(parameters, Collections.emptyMap());
+    }
+
+    /**
+     * Evaluates only the fallback script, with default binding variables that are only used when not present in
+     * the given parameters (e.g. the global node properties).
+     *
+     * @param parameters binding parameters
+     * @param defaults default binding variables
+     * @return output of the fallback script, or {@code null} if there is no fallback script
+     * @throws RuntimeException if the fallback script fails
+     * @since 2.8.10
+     */
+    public Object evalFallback(Map<String, String> parameters, Map<String, ?> defaults) throws RuntimeException {
+        if (secureFallbackScript == null) {
+            return null;
+        }
+        return evalFallback(getClassLoader(), createBinding(parameters, defaults));
+    }
+
+    private Object evalFallback(ClassLoader cl, Binding context) {
+        try {
+            Object returnValue = CompiledScriptCache.INSTANCE.evaluate(secureFallbackScript, cl, context);
+            // sanitize the text if running script in sandbox mode
+            if (secureFallbackScript.isSandbox()) {
+                returnValue = resolveTypeAndSanitize(returnValue);
+            }
+            return returnValue;
+        } catch (Exception e2) {
+            LOGGER.log(Level.WARNING, "Error executing fallback script", e2);
+            throw new RuntimeException("Failed to evaluate fallback script: " + e2.getMessage(), e2);
+        }
+    }
+
+    private ClassLoader getClassLoader() {
+        return ScriptClassLoader.get();
+    }
+
+    private Binding createBinding(Map<String, String> parameters, Map<String, ?> defaults) {
+        return new LazyBinding(parameters, defaults, Utils.getSystemEnv());
+    }
+
     /**
      * Resolves the type of the return value, and then applies the sanitization to
      * the value before returning it.
@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.model;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import groovy.lang.Binding;
+import hudson.Util;
+
+/**
+ * <p>A {@link Binding} that expands the macros of its variables lazily, when the script first reads them,
+ * instead of expanding every parameter before each evaluation.</p>
+ *
+ * <p>Variables are looked up in the given parameters first, and then in a defaults layer (e.g. the
+ * environment variables), which is not copied into the binding unless the script reads it.</p>
+ *
+ * <p>Values that are {@link LazyValue}s are computed when the script first reads them. If they compute
+ * {@code null}, the variable is removed, as if it had not been added to the binding.</p>
+ *
+ * @since 2.8.10
+ */
+final class LazyBinding extends Binding {
+
+    private final Map<String, ?> defaults;
+
+    private final Map<String, String> macroVariables;
+
+    /**
+     * Names of the variables whose macros were not expanded, or whose lazy values were not computed, yet.
+     */
+    private final Set<String> pending = new HashSet<>();
+
+    private boolean defaultsMerged;
+
+    /**
+     * @param parameters the binding variables; {@code null} values are ignored
+     * @param defaults variables used when not present in the parameters
+     * @param macroVariables variables used to expand macros such as {@code ${VAR}}
+     */
+    LazyBinding(Map<String, ?> parameters, Map<String, ?> defaults, Map<String, String> macroVariables) {
+        super(new LinkedHashMap<>());
+        this.defaults = defaults != null ? defaults : Collections.emptyMap();
+        this.macroVariables = macroVariables;
+        if (parameters != null) {
+            for (Map.Entry<String, ?> parameter : parameters.entrySet()) {
+                if (parameter.getValue() != null) {
+                    super.setVariable(parameter.getKey(), parameter.getValue());
+                    pending.add(parameter.getKey());
+                }
+            }
+        }
+    }
+
+    @Override
+    public Object getVariable(String name) {
+        if (pending.contains(name)) {
+            final Object value = resolvePending(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        if (!defaultsMerged && !super.hasVariable(name) && defaults.get(name) != null) {
+            final Object value = resolve(defaults.get(name));
+            super.setVariable(name, value);
+            return value;
+        }
+        return super.getVariable(name);
+    }
+
+    @Override
+    public void setVariable(String name, Object value) {
+        pending.remove(name);
+        super.setVariable(name, value);
+    }
+
+    @Override
+    public boolean hasVariable(String name) {
+        if (pending.contains(name)) {
+            resolvePending(name);
+        }
+        return super.hasVariable(name) || (!defaultsMerged && defaults.get(name) != null);
+    }
+
+    /**
+     * Returns every variable, expanding the pending ones. Scripts that access the whole map (e.g. via
+     * {@code binding.variables}) see the defaults too, as they did before the expansion was lazy.
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Map getVariables() {
+        if (!defaultsMerged) {
+            defaultsMerged = true;
+            for (Map.Entry<String, ?> entry : defaults.entrySet()) {
+                if (entry.getValue() != null && !super.hasVariable(entry.getKey())) {
+                    super.setVariable(entry.getKey(), entry.getValue());
+                    pending.add(entry.getKey());
+                }
+            }
+        }
+        for (String name : pending.toArray(new String[0])) {
+            resolvePending(name);
+        }
+        return super.getVariables();
+    }
+
+    /**
+     * Expands the macros of a pending variable, or computes its lazy value, removing it when {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    private Object resolvePending(String name) {
+        pending.remove(name);
+        final Object value = resolve(super.getVariable(name));
+        if (value == null) {
+            super.getVariables().remove(name);
+        } else {
+            super.setVariable(name, value);
+        }
+        return value;
+    }
+
+    private Object resolve(Object value) {
+        if (value instanceof LazyValue) {
+            return ((LazyValue) value).get();
+        }
+        if (value instanceof String) {
+            return Util.replaceMacro((String) value, macroVariables);
+        }
+        return value;
+    }
+}
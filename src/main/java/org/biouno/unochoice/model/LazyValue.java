@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.model;
+
+import java.util.function.Supplier;
+
+/**
+ * <p>A binding variable whose value is computed only when the script first reads it, e.g. the project or the
+ * last build, which may have to be loaded from disk.</p>
+ *
+ * <p>The value is computed at most once. A {@code null} value leaves the variable undefined, as if it had not been
+ * added to the binding.</p>
+ *
+ * @since 2.8.10
+ */
+public final class LazyValue {
+
+    private final Supplier<?> supplier;
+
+    private volatile boolean computed;
+
+    private Object value;
+
+    private LazyValue(Supplier<?> supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * @param supplier computes the value
+     * @return a lazy value computed by the given supplier
+     */
+    public static LazyValue of(Supplier<?> supplier) {
+        return new LazyValue(supplier);
+    }
+
+    /**
+     * @return the value, computed on the first call
+     */
+    public Object get() {
+        if (!computed) {
+            synchronized (this) {
+                if (!computed) {
+                    value = supplier.get();
+                    computed = true;
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return computed ? String.valueOf(value) : "LazyValue [not computed]";
+    }
+}
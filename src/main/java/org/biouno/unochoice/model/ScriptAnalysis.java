@@ -0,0 +1,253 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.model;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.DynamicVariable;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.SourceUnit;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.GroovySandbox;
+
+import groovy.lang.GroovyClassLoader;
+
+/**
+ * <p>Result of the static analysis of a Groovy script: the binding variables it may read.</p>
+ *
+ * <p>The script is parsed up to the semantic analysis phase, with the same restrictions on AST transformations as
+ * sandboxed scripts, and is never executed. Scripts that cannot be parsed, or that access the binding in a way
+ * that cannot be analyzed (e.g. via {@code binding.variables} or {@code getProperty(name)}), may read any
+ * variable.</p>
+ *
+ * @since 2.8.10
+ */
+public final class ScriptAnalysis {
+
+    private static final Logger LOGGER = Logger.getLogger(ScriptAnalysis.class.getName());
+
+    /**
+     * Analysis of a script that may read any variable.
+     */
+    public static final ScriptAnalysis UNKNOWN = new ScriptAnalysis(Collections.emptySet(), false);
+
+    /**
+     * Analysis of a missing script, which reads nothing.
+     */
+    static final ScriptAnalysis NONE = new ScriptAnalysis(Collections.emptySet(), true);
+
+    /**
+     * Variables, and methods of {@link groovy.lang.Script}, giving access to the whole binding.
+     */
+    private static final Set<String> BINDING_ACCESSORS = new HashSet<>(Arrays.asList("binding", "getBinding",
+            "properties", "getProperties", "getProperty", "invokeMethod", "evaluate", "run", "owner", "delegate",
+            "thisObject", "metaClass"));
+
+    private final Set<String> variables;
+
+    private final boolean precise;
+
+    private ScriptAnalysis(Set<String> variables, boolean precise) {
+        this.variables = variables;
+        this.precise = precise;
+    }
+
+    /**
+     * Analyzes a Groovy script.
+     *
+     * @param text script text
+     * @return the analysis, {@link #UNKNOWN} if the script could not be parsed
+     */
+    public static ScriptAnalysis analyze(String text) {
+        if (text == null) {
+            return NONE;
+        }
+        final CompilerConfiguration configuration = GroovySandbox.createSecureCompilerConfiguration();
+        try (GroovyClassLoader loader = new GroovyClassLoader(ScriptClassLoader.get(), configuration)) {
+            final CompilationUnit unit = new CompilationUnit(configuration, null, loader);
+            final SourceUnit source = unit.addSource("Script" + Integer.toHexString(text.hashCode()) + ".groovy", text);
+            unit.compile(Phases.SEMANTIC_ANALYSIS);
+            final Visitor visitor = new Visitor(source);
+            for (ClassNode classNode : source.getAST().getClasses()) {
+                for (MethodNode method : classNode.getMethods()) {
+                    visitor.declaredMethods.add(method.getName());
+                }
+            }
+            for (ClassNode classNode : source.getAST().getClasses()) {
+                visitor.visitClass(classNode);
+            }
+            return new ScriptAnalysis(Collections.unmodifiableSet(visitor.variables), visitor.precise);
+        } catch (IOException | RuntimeException | LinkageError e) {
+            // includes CompilationFailedException
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Could not analyze script, assuming it may read any variable", e);
+            }
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * @return {@code true} if the variables read by the script are known
+     */
+    public boolean isPrecise() {
+        return precise;
+    }
+
+    /**
+     * @return the binding variables that the script may read, only meaningful if {@link #isPrecise()}
+     */
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * @param name variable name
+     * @return {@code true} if the script may read the variable
+     */
+    public boolean mayRead(String name) {
+        return !precise || variables.contains(name);
+    }
+
+    /**
+     * @param parameters parameters, e.g. the values of the referenced parameters
+     * @param <V> value type
+     * @return the parameters that the script may read
+     */
+    public <V> Map<Object, V> retainRead(Map<Object, V> parameters) {
+        if (!precise || parameters == null) {
+            return parameters;
+        }
+        final Map<Object, V> read = new LinkedHashMap<>();
+        for (Map.Entry<Object, V> parameter : parameters.entrySet()) {
+            if (variables.contains(String.valueOf(parameter.getKey()))) {
+                read.put(parameter.getKey(), parameter.getValue());
+            }
+        }
+        return read;
+    }
+
+    /**
+     * @param other analysis of another script evaluated with the same binding, e.g. the fallback script
+     * @return an analysis covering both scripts
+     */
+    public ScriptAnalysis merge(ScriptAnalysis other) {
+        if (other == NONE) {
+            return this;
+        }
+        if (this == NONE) {
+            return other;
+        }
+        final Set<String> merged = new TreeSet<>(variables);
+        merged.addAll(other.variables);
+        return new ScriptAnalysis(Collections.unmodifiableSet(merged), precise && other.precise);
+    }
+
+    @Override
+    public String toString() {
+        return "ScriptAnalysis [variables=" + (precise ? variables : "any") + "]";
+    }
+
+    private static final class Visitor extends ClassCodeVisitorSupport {
+        private final SourceUnit source;
+        private final Set<String> declaredMethods = new HashSet<>();
+        private final Set<String> variables = new TreeSet<>();
+        private boolean precise = true;
+
+        Visitor(SourceUnit source) {
+            this.source = source;
+        }
+
+        @Override
+        protected SourceUnit getSourceUnit() {
+            return source;
+        }
+
+        @Override
+        public void visitVariableExpression(VariableExpression expression) {
+            if (expression.getAccessedVariable() instanceof DynamicVariable) {
+                read(expression.getName());
+            }
+            super.visitVariableExpression(expression);
+        }
+
+        @Override
+        public void visitMethodCallExpression(MethodCallExpression call) {
+            final String name = call.getMethodAsString();
+            if (name == null) {
+                // e.g. "$name"()
+                precise = false;
+            } else {
+                if (call.isImplicitThis() || isThis(call.getObjectExpression())) {
+                    // undeclared methods may call closures of the binding
+                    if (!declaredMethods.contains(name)) {
+                        read(name);
+                    }
+                }
+            }
+            super.visitMethodCallExpression(call);
+        }
+
+        @Override
+        public void visitPropertyExpression(PropertyExpression expression) {
+            final String name = expression.getPropertyAsString();
+            if (isThis(expression.getObjectExpression())) {
+                if (name == null) {
+                    precise = false;
+                } else {
+                    read(name);
+                }
+            }
+            super.visitPropertyExpression(expression);
+        }
+
+        private void read(String name) {
+            if (BINDING_ACCESSORS.contains(name)) {
+                precise = false;
+            }
+            variables.add(name);
+        }
+
+        private static boolean isThis(Object expression) {
+            return expression instanceof VariableExpression && ((VariableExpression) expression).isThisExpression();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.ExtensionList;
+import hudson.ExtensionListListener;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Descriptor;
+import jenkins.model.Jenkins;
+
+/**
+ * <p>The parent class loader of every Groovy script evaluated by the plug-in.</p>
+ *
+ * <p>A single instance, delegating to the Jenkins {@code uberClassLoader}, is shared by every evaluation,
+ * so that compiled script classes can be re-used by the {@link CompiledScriptCache}. It is replaced only when
+ * plug-ins are dynamically loaded, in which case the compiled classes of the previous generation are
+ * dropped, and can be garbage collected.</p>
+ *
+ * @since 2.8.10
+ */
+public final class ScriptClassLoader extends ClassLoader {
+
+    private static final Logger LOGGER = Logger.getLogger(ScriptClassLoader.class.getName());
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    private static volatile ScriptClassLoader current;
+
+    private final long generation;
+
+    private ScriptClassLoader(ClassLoader parent, long generation) {
+        super(parent);
+        this.generation = generation;
+    }
+
+    /**
+     * @return the class loader of the current generation
+     */
+    public static ClassLoader get() {
+        final ClassLoader parent = getParentClassLoader();
+        ScriptClassLoader loader = current;
+        if (loader == null || loader.getParent() != parent) {
+            synchronized (ScriptClassLoader.class) {
+                loader = current;
+                if (loader == null || loader.getParent() != parent) {
+                    loader = new ScriptClassLoader(parent, GENERATIONS.incrementAndGet());
+                    current = loader;
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.fine(String.format("Created script class loader generation %d", loader.generation));
+                    }
+                }
+            }
+        }
+        return loader;
+    }
+
+    /**
+     * Discards the current class loader, and the script classes compiled with it. The next evaluation creates
+     * a new generation.
+     */
+    public static void invalidate() {
+        synchronized (ScriptClassLoader.class) {
+            current = null;
+            CompiledScriptCache.INSTANCE.clear();
+        }
+        LOGGER.log(Level.FINE, "Script class loader invalidated");
+    }
+
+    /**
+     * @return the generation of the current class loader, or {@code 0} if none was created yet
+     */
+    public static long getCurrentGeneration() {
+        final ScriptClassLoader loader = current;
+        return loader != null ? loader.generation : 0;
+    }
+
+    /**
+     * @return number of classes currently loaded for the cached scripts, including the classes and closures that
+     * they define
+     */
+    public static int getLoadedClassCount() {
+        return CompiledScriptCache.INSTANCE.getLoadedClassCount();
+    }
+
+    /**
+     * @return the generation of this class loader
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    private static ClassLoader getParentClassLoader() {
+        final Jenkins instance = Jenkins.getInstanceOrNull();
+        ClassLoader cl = null;
+        if (instance != null) {
+            try {
+                cl = instance.getPluginManager().uberClassLoader;
+            } catch (Exception e) {
+                LOGGER.log(Level.FINEST, e.getMessage(), e);
+            }
+        }
+        if (cl == null) {
+            cl = Thread.currentThread().getContextClassLoader();
+        }
+        return cl;
+    }
+
+    /**
+     * Invalidates the class loader when the extensions change, i.e. when a plug-in is dynamically loaded.
+     */
+    @Initializer(after = InitMilestone.EXTENSIONS_AUGMENTED)
+    public static void listenForPluginChanges() {
+        ExtensionList.lookup(Descriptor.class).addListener(new ExtensionListListener() {
+            @Override
+            public void onChange() {
+                invalidate();
+            }
+        });
+    }
+}
@@ -29,6 +29,7 @@ import hudson.Extension;
 import hudson.Util;
 import hudson.model.Descriptor;
 import hudson.model.ManagementLink;
+import hudson.util.VariableResolver;
 import jenkins.model.Jenkins;
 import net.sf.json.JSONArray;
 import org.biouno.unochoice.util.Utils;
@@ -43,12 +44,14 @@ import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -79,6 +82,11 @@ public class ScriptlerScript extends AbstractScript {
 
     private ScriptlerBuilder scriptlerBuilder;
 
+    /**
+     * GroovyScripts created from Scriptler scripts, keyed by script file and sandbox flag.
+     */
+    private static final Map<String, CachedGroovyScript> GROOVY_SCRIPTS = new ConcurrentHashMap<>();
+
     /**
      * Whether this scriptler script will run in the Groovy sandbox or not.
      */
@@ -198,22 +206,41 @@ public class ScriptlerScript extends AbstractScript {
      */
     @Override
     public Object eval(Map<String, String> parameters) {
-        final Map<String, String> envVars = Utils.getSystemEnv();
-        Map<String, String> evaledParameters = new LinkedHashMap<>(envVars);
+        return eval(parameters, Collections.emptyMap(), Utils.getSystemEnv());
+    }
+
+    /**
+     * Evaluates the script without copying the global node properties or the environment variables, so
+     * that shared snapshots of them can be passed on every evaluation.
+     *
+     * @param parameters the parameters that came from the UI, may be {@code null}
+     * @param globalNodeProperties used to expand the Scriptler parameters when not found in the parameters
+     * @param defaults binding variables used when not found in the parameters, e.g. the environment variables
+     * @return the script result
+     * @since 2.8.10
+     */
+    public Object eval(Map<String, String> parameters, @NonNull Map<String, ?> globalNodeProperties,
+                       @NonNull Map<String, ?> defaults) {
+        // the environment variables are only defaults, read lazily by the binding
+        Map<String, String> evaledParameters = new LinkedHashMap<>();
         // if we have any parameter that came from UI, let's eval and use them
-        if (parameters != null && !parameters.isEmpty()) {
+        if ((parameters != null && !parameters.isEmpty()) || !globalNodeProperties.isEmpty()) {
+            final Map<String, String> given = parameters != null ? parameters : Collections.emptyMap();
             // fill our map with the given parameters
-            evaledParameters.putAll(parameters);
+            evaledParameters.putAll(given);
             // and now try to expand env vars
+            final VariableResolver<String> resolver = name -> given.containsKey(name)
+                    ? given.get(name)
+                    : Objects.toString(globalNodeProperties.get(name), null);
             for (String key : this.getParameters().keySet()) {
                 String value = this.getParameters().get(key);
-                value = Util.replaceMacro(value, parameters);
+                value = Util.replaceMacro(value, resolver);
                 evaledParameters.put(key, value);
             }
         } else {
             evaledParameters.putAll(this.getParameters());
         }
-        return this.toGroovyScript().eval(evaledParameters);
+        return this.toGroovyScript().eval(evaledParameters, defaults);
     }
 
     // --- utility methods for conversion
@@ -225,20 +252,49 @@ public class ScriptlerScript extends AbstractScript {
      * Jenkins administrator. In this case it won't use the Groovy Sandbox. This is useful if
      * the Groovy script needs access to API not available in the Sandbox (e.g. Grapes).</p>
      *
+     * <p>The GroovyScript is cached per script file and sandbox flag, and re-created only when the
+     * modification time or the length of the script file, or the modification time of the Scriptler
+     * catalog, change.</p>
+     *
      * @return a GroovyScript
      */
     public GroovyScript toGroovyScript() {
-        final Script scriptler = ScriptHelper.getScript(getScriptlerScriptId(), true);
+        final String scriptId = getScriptlerScriptId();
+        final File home = ScriptlerManagement.getScriptlerHomeDirectory();
+        final File scriptFile = new File(new File(home, "scripts"), String.valueOf(scriptId));
+        final File catalogFile = new File(home, "scriptler.xml");
+        final String cacheKey = scriptFile.getAbsolutePath() + "#" + this.isSandboxed;
+        final String stamp = scriptFile.lastModified() + ":" + scriptFile.length() + ":" + catalogFile.lastModified();
+        final CachedGroovyScript cached = GROOVY_SCRIPTS.get(cacheKey);
+        if (cached != null && cached.stamp.equals(stamp)) {
+            return cached.groovyScript;
+        }
+        final Script scriptler = ScriptHelper.getScript(scriptId, true);
         if (scriptler == null) {
             throw new RuntimeException("Missing required scriptler!");
         }
         try {
-            return new GroovyScript(new SecureGroovyScript(scriptler.script, this.isSandboxed, null), null);
+            final GroovyScript groovyScript = new GroovyScript(new SecureGroovyScript(scriptler.script, this.isSandboxed, null), null);
+            GROOVY_SCRIPTS.put(cacheKey, new CachedGroovyScript(stamp, groovyScript));
+            return groovyScript;
         } catch (Descriptor.FormException e) {
             throw new RuntimeException("Failed to create GroovyScript", e);
         }
     }
 
+    /**
+     * A GroovyScript created from a Scriptler script, and the file stamp it was created with.
+     */
+    private static final class CachedGroovyScript {
+        private final String stamp;
+        private final GroovyScript groovyScript;
+
+        private CachedGroovyScript(String stamp, GroovyScript groovyScript) {
+            this.stamp = stamp;
+            this.groovyScript = groovyScript;
+        }
+    }
+
     // --- descriptor
 
     @Extension(optional = true)
@@ -0,0 +1,405 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>A bounded (LRU) cache of script results, shared by every parameter that enables it.</p>
+ *
+ * <p>Results are keyed by the parameter random name, its project, its script, and the normalized values of
+ * the referenced parameters, so that switching a parent parameter back and forth does not re-run the
+ * script. Entries expire after the time-to-live given by each parameter. The total number of entries and
+ * their total weight (the number of choices) are limited by the {@code maxEntries} and {@code maxWeight}
+ * system properties, prefixed by this class name.</p>
+ *
+ * <p>Cached values are unmodifiable copies of the script results. Parameters using stale-while-revalidate may
+ * read expired values, which are then kept until they are refreshed or evicted.</p>
+ *
+ * @since 2.8.10
+ */
+public final class ChoiceCache {
+
+    static final int MAX_ENTRIES = SystemProperties.getInteger(ChoiceCache.class.getName() + ".maxEntries", 1000);
+
+    static final long MAX_WEIGHT = SystemProperties.getLong(ChoiceCache.class.getName() + ".maxWeight", 100_000L);
+
+    public static final ChoiceCache INSTANCE = new ChoiceCache(MAX_ENTRIES, MAX_WEIGHT);
+
+    private final int maxEntries;
+    private final long maxWeight;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong maxStaleMillis = new AtomicLong();
+
+    ChoiceCache(int maxEntries, long maxWeight) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Creates a cache key.
+     *
+     * @param randomName parameter random name
+     * @param projectFullName full name of the parameter project, may be {@code null}
+     * @param script the parameter script, compared by identity, so that results are not shared after the
+     *               parameter configuration changes
+     * @param parameters values of the referenced parameters
+     * @return the cache key
+     */
+    public static Key key(String randomName, String projectFullName, Object script, Map<?, ?> parameters) {
+        return new Key(randomName, projectFullName, script, normalize(parameters));
+    }
+
+    /**
+     * Normalizes the parameter values, so that maps with the same values in a different order, or with
+     * values of different types but the same string representation, are equal.
+     *
+     * @param parameters parameter values
+     * @return a sorted map of string values
+     */
+    public static SortedMap<String, String> normalize(Map<?, ?> parameters) {
+        final SortedMap<String, String> normalized = new TreeMap<>();
+        if (parameters != null) {
+            for (Map.Entry<?, ?> parameter : parameters.entrySet()) {
+                normalized.put(String.valueOf(parameter.getKey()),
+                        parameter.getValue() == null ? "" : parameter.getValue().toString());
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * @param key cache key
+     * @return the cached value, or {@code null} if it is not cached or has expired
+     */
+    public Object get(Key key) {
+        final Lookup lookup = lookup(key, false);
+        return lookup != null ? lookup.getValue() : null;
+    }
+
+    /**
+     * Looks up a cached value.
+     *
+     * @param key cache key
+     * @param allowStale whether an expired value may be returned (stale-while-revalidate). Otherwise expired
+     *                   values are removed
+     * @return the cached value, or {@code null} if it is not cached, or has expired and stale values are not allowed
+     */
+    public Lookup lookup(Key key, boolean allowStale) {
+        synchronized (entries) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                final long now = System.nanoTime();
+                if (entry.expiresAt - now > 0) {
+                    hits.incrementAndGet();
+                    return new Lookup(entry.value, 0);
+                }
+                if (allowStale) {
+                    final long staleMillis = TimeUnit.NANOSECONDS.toMillis(now - entry.expiresAt);
+                    staleHits.incrementAndGet();
+                    maxStaleMillis.accumulateAndGet(staleMillis, Math::max);
+                    return new Lookup(entry.value, Math.max(1, staleMillis));
+                }
+                remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches a script result.
+     *
+     * @param key cache key
+     * @param value script result
+     * @param ttlSeconds time-to-live of the entry, in seconds
+     * @return the value as stored in the cache, i.e. an unmodifiable copy for maps and collections
+     */
+    public Object put(Key key, Object value, long ttlSeconds) {
+        final Object copy = copyOf(value);
+        if (copy == null || ttlSeconds <= 0) {
+            return copy;
+        }
+        final Entry entry = new Entry(copy, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds), weigh(copy));
+        synchronized (entries) {
+            final Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            weight += entry.weight;
+            final Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+                weight -= eldest.next().getValue().weight;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Marks a stale value as being refreshed.
+     *
+     * @param key cache key
+     * @return {@code true} if the caller must refresh the value, {@code false} if it is already being refreshed
+     */
+    public boolean startRefresh(Key key) {
+        if (refreshing.add(key)) {
+            refreshes.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Marks the refresh of a value as finished, whether it succeeded or not.
+     *
+     * @param key cache key
+     */
+    public void endRefresh(Key key) {
+        refreshing.remove(key);
+    }
+
+    /**
+     * Removes every cached result of a parameter.
+     *
+     * @param randomName parameter random name
+     */
+    public void invalidate(String randomName) {
+        synchronized (entries) {
+            final Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<Key, Entry> entry = iterator.next();
+                if (Objects.equals(randomName, entry.getKey().randomName)) {
+                    weight -= entry.getValue().weight;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every cached result.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    private void remove(Key key) {
+        final Entry removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight;
+        }
+    }
+
+    /**
+     * @return number of cache hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of cache misses, including expired entries
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of entries evicted because of the size or weight limits
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return number of expired values returned while they were refreshed
+     */
+    public long getStaleHits() {
+        return staleHits.get();
+    }
+
+    /**
+     * @return number of background refreshes started
+     */
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    /**
+     * @return maximum time, in milliseconds, since a stale value returned had expired
+     */
+    public long getMaxStaleMillis() {
+        return maxStaleMillis.get();
+    }
+
+    /**
+     * @return number of cached entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return total weight of the cached entries
+     */
+    public long getWeight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    private static Object copyOf(Object value) {
+        if (value instanceof Map) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>((Map<?, ?>) value));
+        }
+        if (value instanceof List) {
+            return Collections.unmodifiableList(new ArrayList<>((List<?>) value));
+        }
+        return value;
+    }
+
+    private static long weigh(Object value) {
+        if (value instanceof Map) {
+            return Math.max(1, ((Map<?, ?>) value).size());
+        }
+        if (value instanceof Collection) {
+            return Math.max(1, ((Collection<?>) value).size());
+        }
+        return 1;
+    }
+
+    /**
+     * Result of a cache look up.
+     */
+    public static final class Lookup {
+        private final Object value;
+        private final long staleMillis;
+
+        private Lookup(Object value, long staleMillis) {
+            this.value = value;
+            this.staleMillis = staleMillis;
+        }
+
+        /**
+         * @return the cached value
+         */
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * @return {@code true} if the value has expired and must be refreshed
+         */
+        public boolean isStale() {
+            return staleMillis > 0;
+        }
+
+        /**
+         * @return time, in milliseconds, since the value expired, or {@code 0} if it has not expired
+         */
+        public long getStaleMillis() {
+            return staleMillis;
+        }
+    }
+
+    /**
+     * Cache key.
+     */
+    public static final class Key {
+        private final String randomName;
+        private final String projectFullName;
+        private final Object script;
+        private final SortedMap<String, String> parameters;
+        private final int hash;
+
+        private Key(String randomName, String projectFullName, Object script, SortedMap<String, String> parameters) {
+            this.randomName = randomName;
+            this.projectFullName = projectFullName;
+            this.script = script;
+            this.parameters = parameters;
+            this.hash = Objects.hash(randomName, projectFullName, System.identityHashCode(script), parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            final Key other = (Key) obj;
+            return script == other.script && Objects.equals(randomName, other.randomName)
+                    && Objects.equals(projectFullName, other.projectFullName) && parameters.equals(other.parameters);
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long expiresAt;
+        private final long weight;
+
+        private Entry(Object value, long expiresAt, long weight) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+    }
+}
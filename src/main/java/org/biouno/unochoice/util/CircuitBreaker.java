@@ -0,0 +1,319 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>A circuit breaker for the script of a parameter.</p>
+ *
+ * <p>After {@code failureThreshold} consecutive failures or timeouts, the breaker opens, and evaluations go
+ * straight to the fallback script during {@code cooldown} seconds. Then a single evaluation (the probe) is
+ * allowed to run the script again. If it succeeds, the breaker closes; otherwise, it opens again. Both values
+ * can be set with system properties prefixed by this class name.</p>
+ *
+ * <p>Breakers are kept per job and parameter (copied jobs share the random name of their parameters), and
+ * removed when their job is saved, renamed, or deleted. Parameters whose job is not known are not protected by
+ * a breaker, as it could not be removed.</p>
+ *
+ * @since 2.8.10
+ */
+public final class CircuitBreaker {
+
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreaker.class.getName());
+
+    static final int FAILURE_THRESHOLD = SystemProperties.getInteger(CircuitBreaker.class.getName() + ".failureThreshold", 5);
+
+    static final int COOLDOWN = SystemProperties.getInteger(CircuitBreaker.class.getName() + ".cooldown", 30);
+
+    private static final int MAX_TRANSITIONS = 10;
+
+    private static final ConcurrentMap<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    /**
+     * Breaker states.
+     */
+    public enum State {
+        /** The script is evaluated. */
+        CLOSED,
+        /** The fallback script is used. */
+        OPEN,
+        /** A single probe evaluates the script. */
+        HALF_OPEN
+    }
+
+    private final String projectFullName;
+    private final String randomName;
+    private final String parameterName;
+    private final int failureThreshold;
+    private final long cooldownNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private long shortCircuited;
+    private final Deque<Transition> transitions = new ArrayDeque<>();
+
+    CircuitBreaker(String projectFullName, String randomName, String parameterName, int failureThreshold, long cooldownSeconds) {
+        this.projectFullName = projectFullName;
+        this.randomName = randomName;
+        this.parameterName = parameterName;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.cooldownNanos = TimeUnit.SECONDS.toNanos(cooldownSeconds);
+    }
+
+    /**
+     * @param projectFullName full name of the job of the parameter, or {@code null} if not known
+     * @param randomName parameter random name
+     * @param parameterName parameter name, displayed to administrators
+     * @return the breaker of the parameter, or a new breaker, that is not kept, if the job is not known
+     */
+    public static CircuitBreaker forParameter(@CheckForNull String projectFullName, String randomName, String parameterName) {
+        if (projectFullName == null) {
+            // never removed by the listeners, so it would keep short-circuiting the parameter once fixed
+            return new CircuitBreaker("", randomName, parameterName, FAILURE_THRESHOLD, COOLDOWN);
+        }
+        return BREAKERS.computeIfAbsent(projectFullName + '\n' + randomName,
+                key -> new CircuitBreaker(projectFullName, randomName, parameterName, FAILURE_THRESHOLD, COOLDOWN));
+    }
+
+    /**
+     * Removes the breakers of the parameters of a job.
+     *
+     * @param projectFullName full name of the job
+     */
+    static void removeProject(String projectFullName) {
+        BREAKERS.values().removeIf(breaker -> breaker.projectFullName.equals(projectFullName));
+    }
+
+    /**
+     * @return every breaker, sorted by parameter name
+     */
+    public static List<CircuitBreaker> all() {
+        final List<CircuitBreaker> breakers = new ArrayList<>(BREAKERS.values());
+        breakers.sort((a, b) -> a.parameterName.compareTo(b.parameterName));
+        return breakers;
+    }
+
+    /**
+     * @return {@code true} if the script may be evaluated, {@code false} if the fallback script must be used
+     */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt >= cooldownNanos) {
+                    transition(State.HALF_OPEN, "Cooldown elapsed, probing the script");
+                    return true;
+                }
+                shortCircuited++;
+                return false;
+            default:
+                // a probe is already running
+                shortCircuited++;
+                return false;
+        }
+    }
+
+    /**
+     * Records a successful evaluation.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            transition(State.CLOSED, "Script evaluated successfully");
+        }
+    }
+
+    /**
+     * Records a failed or timed out evaluation.
+     *
+     * @param reason failure reason
+     */
+    public synchronized void recordFailure(String reason) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAt = System.nanoTime();
+            transition(State.OPEN, reason);
+        }
+    }
+
+    /**
+     * Records an evaluation whose outcome says nothing about the script health (e.g. it was rejected because
+     * the queue was full, or the script is not approved). A running probe is then released, so that the next
+     * evaluation probes the script again.
+     */
+    public synchronized void recordIgnored() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    private void transition(State newState, String reason) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info(String.format("Circuit breaker of parameter '%s' changed from %s to %s: %s",
+                    parameterName, state, newState, reason));
+        }
+        transitions.addFirst(new Transition(state, newState, reason));
+        while (transitions.size() > MAX_TRANSITIONS) {
+            transitions.removeLast();
+        }
+        state = newState;
+    }
+
+    public String getProjectFullName() {
+        return projectFullName;
+    }
+
+    public String getRandomName() {
+        return randomName;
+    }
+
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * @return number of evaluations that went straight to the fallback script
+     */
+    public synchronized long getShortCircuitedCount() {
+        return shortCircuited;
+    }
+
+    /**
+     * @return the most recent transitions, newest first
+     */
+    public synchronized Collection<Transition> getTransitions() {
+        return Collections.unmodifiableList(new ArrayList<>(transitions));
+    }
+
+    /**
+     * Removes every breaker, e.g. for tests.
+     */
+    public static void reset() {
+        BREAKERS.clear();
+    }
+
+    /**
+     * A state change of a breaker.
+     */
+    public static final class Transition {
+        private final long timestamp = System.currentTimeMillis();
+        private final State from;
+        private final State to;
+        private final String reason;
+
+        Transition(State from, State to, String reason) {
+            this.from = from;
+            this.to = to;
+            this.reason = reason;
+        }
+
+        public Date getDate() {
+            return new Date(timestamp);
+        }
+
+        public State getFrom() {
+            return from;
+        }
+
+        public State getTo() {
+            return to;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    /**
+     * Removes the breakers of a job when its configuration is saved, e.g. after fixing its scripts.
+     */
+    @Extension
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Job) {
+                removeProject(((Job<?, ?>) o).getFullName());
+            }
+        }
+    }
+
+    /**
+     * Removes the breakers of deleted and renamed jobs, and every breaker when the configuration is reloaded.
+     */
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onLoaded() {
+            reset();
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            if (item instanceof Job) {
+                removeProject(item.getFullName());
+            }
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            if (item instanceof Job) {
+                removeProject(oldFullName);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.slaves.EnvironmentVariablesNodeProperty;
+import hudson.slaves.NodeProperty;
+import jenkins.model.Jenkins;
+
+/**
+ * <p>An immutable snapshot of the environment variables of the global node properties, shared by every script
+ * evaluation.</p>
+ *
+ * <p>The snapshot is taken on first use, and taken again after the global configuration is saved (which
+ * includes changes to the global node properties) or reloaded.</p>
+ *
+ * @since 2.8.10
+ */
+public final class GlobalNodePropertiesSnapshot {
+
+    private static final Logger LOGGER = Logger.getLogger(GlobalNodePropertiesSnapshot.class.getName());
+
+    private static final Object LOCK = new Object();
+
+    private static volatile Snapshot snapshot;
+
+    private GlobalNodePropertiesSnapshot() {
+    }
+
+    /**
+     * @return the environment variables of the global node properties, not modifiable
+     */
+    public static Map<String, Object> get() {
+        return current().properties;
+    }
+
+    /**
+     * @return the system environment variables, overridden by the environment variables of the global node
+     * properties, not modifiable
+     */
+    public static Map<String, ?> getWithSystemEnv() {
+        return current().withSystemEnv;
+    }
+
+    private static Snapshot current() {
+        final Jenkins jenkins = Jenkins.get();
+        Snapshot current = snapshot;
+        if (current != null && current.jenkins == jenkins) {
+            return current;
+        }
+        synchronized (LOCK) {
+            current = snapshot;
+            if (current == null || current.jenkins != jenkins) {
+                current = new Snapshot(jenkins, read(jenkins));
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Discards the snapshot, which is taken again on next use.
+     */
+    public static void invalidate() {
+        synchronized (LOCK) {
+            snapshot = null;
+        }
+    }
+
+    private static Map<String, Object> read(Jenkins jenkins) {
+        final Map<String, Object> map = new HashMap<>();
+        for (NodeProperty<?> nodeProperty : jenkins.getGlobalNodeProperties()) {
+            if (nodeProperty instanceof EnvironmentVariablesNodeProperty) {
+                map.putAll(((EnvironmentVariablesNodeProperty) nodeProperty).getEnvVars());
+            }
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(String.format("Took a snapshot of %d global node properties", map.size()));
+        }
+        return map.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(map);
+    }
+
+    private static final class Snapshot {
+        private final Jenkins jenkins;
+        private final Map<String, Object> properties;
+        private final Map<String, ?> withSystemEnv;
+
+        Snapshot(Jenkins jenkins, Map<String, Object> properties) {
+            this.jenkins = jenkins;
+            this.properties = properties;
+            if (properties.isEmpty()) {
+                this.withSystemEnv = Utils.getSystemEnv();
+            } else {
+                final Map<String, Object> merged = new HashMap<>(Utils.getSystemEnv());
+                merged.putAll(properties);
+                this.withSystemEnv = Collections.unmodifiableMap(merged);
+            }
+        }
+    }
+
+    /**
+     * Discards the snapshot when the global configuration is saved.
+     */
+    @Extension
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Jenkins) {
+                invalidate();
+            }
+        }
+    }
+
+    /**
+     * Discards the snapshot when the configuration is loaded, e.g. after a reload from disk.
+     */
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onLoaded() {
+            invalidate();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.util;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.model.ParameterDefinition;
+import hudson.util.ReflectionUtils;
+
+/**
+ * <p>Per-class cache of the bean properties that may hold {@link ParameterDefinition}s (a parameter definition,
+ * an {@link Iterable} or an array), used to find the parameters defined by build wrappers.</p>
+ *
+ * <p>Classes are introspected once, and their properties are then read with {@link MethodHandle}s. Classes without
+ * any such property are cached too, with an empty list of accessors.</p>
+ *
+ * @since 2.8.10
+ */
+final class ParameterDefinitionAccessors {
+
+    private static final Logger LOGGER = Logger.getLogger(ParameterDefinitionAccessors.class.getName());
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<List<Accessor>> ACCESSORS = new ClassValue<List<Accessor>>() {
+        @Override
+        protected List<Accessor> computeValue(Class<?> type) {
+            return introspect(type);
+        }
+    };
+
+    private ParameterDefinitionAccessors() {
+    }
+
+    /**
+     * Adds the parameter definitions held by the properties of the given bean to the target list.
+     *
+     * @param target list of parameter definitions
+     * @param bean the bean, e.g. a build wrapper
+     */
+    static void addParameterDefinitionsTo(List<ParameterDefinition> target, Object bean) {
+        for (Accessor accessor : ACCESSORS.get(bean.getClass())) {
+            try {
+                accessor.addParameterDefinitionsTo(target, bean);
+            } catch (RuntimeException e) {
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE,
+                            String.format("Failed to add parameter [%s] to the ParameterDefinition list", accessor.name),
+                            e);
+                }
+            }
+        }
+    }
+
+    private static List<Accessor> introspect(Class<?> type) {
+        final PropertyDescriptor[] propertyDescriptors;
+        try {
+            propertyDescriptors = Introspector.getBeanInfo(type).getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE,
+                        String.format("Introspector.getBeanInfo failed for build wrapper class: [%s]", type.getCanonicalName()),
+                        e);
+            }
+            return Collections.emptyList();
+        }
+        final List<Accessor> accessors = new ArrayList<>();
+        for (PropertyDescriptor pd : propertyDescriptors) {
+            final Class<?> propertyType = pd.getPropertyType();
+            if (propertyType == null) {
+                // indexed property without an array accessor
+                continue;
+            }
+            final Kind kind;
+            if (ParameterDefinition.class.isAssignableFrom(propertyType)) {
+                kind = Kind.PARAMETER;
+            } else if (Iterable.class.isAssignableFrom(propertyType)) {
+                kind = Kind.ITERABLE;
+            } else if (Object[].class.isAssignableFrom(propertyType)) {
+                kind = Kind.ARRAY;
+            } else {
+                continue;
+            }
+            final MethodHandle getter = getter(type, pd);
+            if (getter != null) {
+                accessors.add(new Accessor(pd.getName(), kind, propertyType, getter));
+            }
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(String.format("Found %d parameter definition properties in class [%s]", accessors.size(), type.getName()));
+        }
+        return accessors.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(accessors);
+    }
+
+    /* Same look up as before: the read method, or else a field with the property name. */
+    private static MethodHandle getter(Class<?> type, PropertyDescriptor pd) {
+        try {
+            final Method accessor = pd.getReadMethod();
+            if (accessor != null && accessor.getParameterTypes().length == 0) {
+                makeAccessible(accessor);
+                return LOOKUP.unreflect(accessor);
+            }
+            final Field field = ReflectionUtils.findField(type, pd.getName());
+            if (field != null) {
+                makeAccessible(field);
+                return LOOKUP.unreflectGetter(field);
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, String.format("Cannot read property [%s] of class [%s]", pd.getName(), type.getName()), e);
+            }
+        }
+        return null;
+    }
+
+    private static void makeAccessible(AccessibleObject member) {
+        try {
+            member.setAccessible(true);
+        } catch (RuntimeException e) {
+            // e.g. not opened by its module; public members can still be read
+            LOGGER.log(Level.FINEST, "Cannot make member accessible", e);
+        }
+    }
+
+    private enum Kind {
+        PARAMETER, ITERABLE, ARRAY
+    }
+
+    private static final class Accessor {
+        private final String name;
+        private final Kind kind;
+        private final Class<?> propertyType;
+        private final MethodHandle getter;
+
+        Accessor(String name, Kind kind, Class<?> propertyType, MethodHandle getter) {
+            this.name = name;
+            this.kind = kind;
+            this.propertyType = propertyType;
+            this.getter = getter;
+        }
+
+        void addParameterDefinitionsTo(List<ParameterDefinition> target, Object bean) {
+            final Object value = read(bean);
+            if (!propertyType.isInstance(value)) {
+                return;
+            }
+            final Iterable<?> iterable;
+            switch (kind) {
+                case PARAMETER:
+                    target.add((ParameterDefinition) value);
+                    return;
+                case ITERABLE:
+                    iterable = (Iterable<?>) value;
+                    break;
+                default:
+                    iterable = Arrays.asList((Object[]) value);
+                    break;
+            }
+            for (Object o : iterable) {
+                if (o instanceof ParameterDefinition) {
+                    target.add((ParameterDefinition) o);
+                }
+            }
+        }
+
+        private Object read(Object bean) {
+            try {
+                return getter.invoke(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.security.core.Authentication;
+
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>A bounded executor used to evaluate parameter scripts outside the HTTP request threads, when they have an
+ * evaluation timeout. Scripts without timeout run in the calling thread, as before, with its request.</p>
+ *
+ * <p>The pool size, the queue depth, and the default evaluation timeout (in seconds) can be set with the
+ * {@code poolSize}, {@code queueDepth}, and {@code defaultTimeout} system properties, prefixed by this
+ * class name. Tasks run with the authentication of the caller. When an evaluation is requested from a
+ * thread of this executor, it runs inline instead of being queued again.</p>
+ *
+ * @since 2.8.10
+ */
+public final class ScriptEvaluationExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(ScriptEvaluationExecutor.class.getName());
+
+    static final int POOL_SIZE = SystemProperties.getInteger(ScriptEvaluationExecutor.class.getName() + ".poolSize",
+            Math.max(4, Runtime.getRuntime().availableProcessors()));
+
+    static final int QUEUE_DEPTH = SystemProperties.getInteger(ScriptEvaluationExecutor.class.getName() + ".queueDepth", 100);
+
+    /**
+     * Default evaluation timeout in seconds, used when a parameter does not define one. Zero or negative
+     * values disable the timeout, which is the default, so that existing scripts are never cut short.
+     */
+    public static final int DEFAULT_TIMEOUT = SystemProperties.getInteger(ScriptEvaluationExecutor.class.getName() + ".defaultTimeout", 0);
+
+    public static final ScriptEvaluationExecutor INSTANCE = new ScriptEvaluationExecutor(POOL_SIZE, QUEUE_DEPTH);
+
+    private static final ThreadLocal<Boolean> EVALUATION_THREAD = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+
+    ScriptEvaluationExecutor(int poolSize, int queueDepth) {
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueDepth)),
+                new NamingThreadFactory(new DaemonThreadFactory(), "Active Choices script evaluation"));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @return {@code true} if the current thread is evaluating a script for this executor
+     */
+    public static boolean isEvaluationThread() {
+        return EVALUATION_THREAD.get();
+    }
+
+    /**
+     * Evaluates the given task in the pool, waiting at most {@code timeoutSeconds} for its result. Without timeout,
+     * the task is evaluated in the calling thread.
+     *
+     * @param task the task to evaluate
+     * @param timeoutSeconds timeout in seconds, zero or negative to evaluate the task in the calling thread
+     * @param <V> the result type
+     * @return the task result
+     * @throws TimeoutException if the task did not complete in time (it is then cancelled)
+     * @throws RejectedExecutionException if the queue is full
+     * @throws Exception thrown by the task
+     */
+    public <V> V evaluate(Callable<V> task, long timeoutSeconds) throws Exception {
+        if (isEvaluationThread() || timeoutSeconds <= 0) {
+            // the script may use the current request, that is only available in this thread
+            return task.call();
+        }
+        final Future<V> future = submit(task);
+        try {
+            return future.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            timedOut.incrementAndGet();
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Submits the given task to the pool, without waiting for its result.
+     *
+     * @param task the task to evaluate
+     * @param <V> the result type
+     * @return a future with the task result
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public <V> Future<V> submit(Callable<V> task) {
+        final Authentication auth = Jenkins.getAuthentication2();
+        final long queuedAt = System.nanoTime();
+        try {
+            final Future<V> future = executor.submit(() -> {
+                recordQueueWait(System.nanoTime() - queuedAt);
+                EVALUATION_THREAD.set(Boolean.TRUE);
+                try (ACLContext ctx = ACL.as2(auth)) {
+                    return task.call();
+                } finally {
+                    EVALUATION_THREAD.remove();
+                }
+            });
+            submitted.incrementAndGet();
+            return future;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            LOGGER.log(Level.WARNING, String.format("Script evaluation rejected, the queue of %d evaluations is full",
+                    executor.getQueue().size()));
+            throw e;
+        }
+    }
+
+    private void recordQueueWait(long waitNanos) {
+        started.incrementAndGet();
+        totalQueueWaitNanos.addAndGet(waitNanos);
+        maxQueueWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(String.format("Script evaluation waited %d ms in the queue", TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+        }
+    }
+
+    /**
+     * @return number of tasks submitted to the pool
+     */
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * @return number of tasks rejected because the queue was full
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return number of tasks cancelled after reaching their timeout
+     */
+    public long getTimedOutCount() {
+        return timedOut.get();
+    }
+
+    /**
+     * @return average time, in milliseconds, that tasks waited in the queue
+     */
+    public long getAverageQueueWaitMillis() {
+        final long count = started.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalQueueWaitNanos.get() / count);
+    }
+
+    /**
+     * @return maximum time, in milliseconds, that a task waited in the queue
+     */
+    public long getMaxQueueWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos.get());
+    }
+
+    /**
+     * @return number of tasks waiting in the queue
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return number of threads evaluating scripts
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+}
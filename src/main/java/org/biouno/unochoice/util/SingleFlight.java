@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Coalesces identical concurrent evaluations.</p>
+ *
+ * <p>The first caller for a given key (the leader) executes the task. Callers that arrive with the same key
+ * while the task is running (the followers) wait for it and receive the same result, or the same exception,
+ * instead of executing the task again. Followers wait at most for their own timeout, as the leader may run
+ * the task without one (e.g. in a thread of the {@link ScriptEvaluationExecutor}).</p>
+ *
+ * @since 2.8.10
+ */
+public final class SingleFlight {
+
+    public static final SingleFlight INSTANCE = new SingleFlight();
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong followers = new AtomicLong();
+
+    SingleFlight() {
+    }
+
+    /**
+     * Executes the task, or waits for the identical task already in flight.
+     *
+     * @param key identity of the task, must implement {@code equals} and {@code hashCode}
+     * @param task the task to execute
+     * @param timeoutSeconds maximum time, in seconds, to wait for the task in flight, zero or negative to wait
+     * until it completes
+     * @return the task result
+     * @throws TimeoutException if the task in flight did not complete in time
+     * @throws Exception thrown by the task
+     */
+    public Object execute(Object key, Callable<Object> task, long timeoutSeconds) throws Exception {
+        final CompletableFuture<Object> flight = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            followers.incrementAndGet();
+            try {
+                return timeoutSeconds > 0 ? existing.get(timeoutSeconds, TimeUnit.SECONDS) : existing.get();
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+        }
+        leaders.incrementAndGet();
+        try {
+            final Object value = task.call();
+            flight.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return number of tasks executed
+     */
+    public long getLeaderCount() {
+        return leaders.get();
+    }
+
+    /**
+     * @return number of callers that re-used the result of a task in flight
+     */
+    public long getFollowerCount() {
+        return followers.get();
+    }
+
+    /**
+     * @return number of tasks in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
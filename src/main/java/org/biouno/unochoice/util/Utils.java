@@ -24,43 +24,28 @@
 
 package org.biouno.unochoice.util;
 
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 
-import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.biouno.unochoice.AbstractUnoChoiceParameter;
+import org.biouno.unochoice.ProjectIndex;
 
 import hudson.model.Item;
-import hudson.model.Items;
+import hudson.model.Job;
 import hudson.model.ParameterDefinition;
 import hudson.model.ParametersDefinitionProperty;
 import hudson.model.Project;
-import hudson.security.ACL;
-import hudson.slaves.EnvironmentVariablesNodeProperty;
-import hudson.slaves.NodeProperty;
-import hudson.slaves.NodePropertyDescriptor;
 import hudson.tasks.BuildWrapper;
-import hudson.util.DescribableList;
-import hudson.util.ReflectionUtils;
 import jenkins.model.Jenkins;
-import org.springframework.security.core.Authentication;
 
 /**
  * Utility methods.
@@ -72,6 +57,8 @@ public class Utils {
 
     protected static final Logger LOGGER = Logger.getLogger(Utils.class.getName());
 
+    private static final Map<String, String> SYSTEM_ENV = Collections.unmodifiableMap(new HashMap<>(System.getenv()));
+
     private Utils() {}
 
     // --- methods called from Jelly pages
@@ -177,10 +164,13 @@ public class Utils {
      * over calling the System.getenv method directly, is that we can mock this call
      * (System is final).
      *
-     * @return System environment variables as map
+     * <p>The environment of the Jenkins process does not change, so an immutable snapshot
+     * is taken once and re-used by every script evaluation.</p>
+     *
+     * @return System environment variables as an immutable map
      */
     public static @NonNull Map<String, String> getSystemEnv() {
-        return System.getenv();
+        return SYSTEM_ENV;
     }
 
     /**
@@ -192,15 +182,9 @@ public class Utils {
      * @deprecated The choice is arbitrary if there are multiple matches; use {@link Item#getFullName} and {@link Jenkins#getItemByFullName(String, Class)} instead.
      */
     @Deprecated
-    @SuppressWarnings("rawtypes")
     public static @CheckForNull Project<?, ?> getProjectByName(@NonNull String projectName) {
-        Authentication auth = Jenkins.getAuthentication2();
-        for (Project p : Items.allItems2(ACL.SYSTEM2, Jenkins.getInstance(), Project.class)) {
-            if (p.getName().equals(projectName) && p.getACL().hasPermission2(auth, Item.READ)) {
-                return p;
-            }
-        }
-        return null;
+        // indexed by ProjectIndex, instead of iterating over every project
+        return ProjectIndex.getProjectByName(projectName);
     }
 
     /**
@@ -213,51 +197,31 @@ public class Utils {
      */
     @SuppressWarnings("rawtypes")
     public static @CheckForNull Project findProjectByParameterUUID(@NonNull String parameterUUID) {
-        Authentication auth = Jenkins.getAuthentication2();
-        for (Project p : Items.allItems2(ACL.SYSTEM2, Jenkins.get(), Project.class)) {
-            if (isParameterDefinitionOf(parameterUUID, p) && p.getACL().hasPermission2(auth, Item.READ)) {
-                return p;
-            }
-        }
-        return null;
+        // indexed by ProjectIndex, instead of inspecting the parameters of every project
+        return ProjectIndex.findProjectByParameterUUID(parameterUUID);
     }
 
     /**
-     * Returns true if this parameter definition is a definition of the given project.
+     * Get the parameter definitions for the given project.
      *
      * @since 1.3
      * @author dynamic-parameter-plugin
-     * @param parameterUUID UUID of the project parameter
-     * @param project the project to search for this parameter definition.
-     * @return {@code true} if the project contains this parameter definition.
+     * @param project the project for which the parameter definitions should be found
+     * @return parameter definitions or an empty list
      */
-    private static boolean isParameterDefinitionOf(@NonNull String parameterUUID, @NonNull Project<?, ?> project) {
-        List<ParameterDefinition> parameterDefinitions = new ArrayList<>(getProjectParameterDefinitions(project));
-        for (List<ParameterDefinition> params : getBuildWrapperParameterDefinitions(project).values()) {
-            parameterDefinitions.addAll(params);
-        }
-        for (ParameterDefinition pd : parameterDefinitions) {
-            if (pd instanceof AbstractUnoChoiceParameter) {
-                AbstractUnoChoiceParameter parameterDefinition = (AbstractUnoChoiceParameter) pd;
-                String uuid = parameterDefinition.getRandomName();
-                if (ObjectUtils.equals(parameterUUID, uuid)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    public static @NonNull List<ParameterDefinition> getProjectParameterDefinitions(@NonNull Project<?, ?> project) {
+        return getJobParameterDefinitions(project);
     }
 
     /**
-     * Get the parameter definitions for the given project.
+     * Get the parameter definitions for the given job, of any type (e.g. a Pipeline job).
      *
-     * @since 1.3
-     * @author dynamic-parameter-plugin
-     * @param project the project for which the parameter definitions should be found
+     * @since 2.8.10
+     * @param job the job for which the parameter definitions should be found
      * @return parameter definitions or an empty list
      */
-    public static @NonNull List<ParameterDefinition> getProjectParameterDefinitions(@NonNull Project<?, ?> project) {
-        ParametersDefinitionProperty parametersDefinitionProperty = project.getProperty(ParametersDefinitionProperty.class);
+    public static @NonNull List<ParameterDefinition> getJobParameterDefinitions(@NonNull Job<?, ?> job) {
+        ParametersDefinitionProperty parametersDefinitionProperty = job.getProperty(ParametersDefinitionProperty.class);
         if (parametersDefinitionProperty != null) {
             List<ParameterDefinition> parameterDefinitions = parametersDefinitionProperty.getParameterDefinitions();
             if (parameterDefinitions != null) {
@@ -268,24 +232,14 @@ public class Utils {
     }
 
     /**
-     * Get a map with the global node properties.
+     * Get a map with the global node properties. The map is a copy that callers may modify; read-only
+     * callers should use {@link GlobalNodePropertiesSnapshot#get()} instead, which does not copy.
      *
      * @since 1.6
      * @return map with global node properties
      */
     public static @NonNull Map<String, Object> getGlobalNodeProperties() {
-        Map<String, Object> map = new HashMap<>();
-        Jenkins instance = Jenkins.get();
-        DescribableList<NodeProperty<?>, NodePropertyDescriptor> globalNodeProperties = instance.getGlobalNodeProperties();
-        if (globalNodeProperties != null) {
-            for (NodeProperty<?> nodeProperty : globalNodeProperties) {
-                if (nodeProperty instanceof EnvironmentVariablesNodeProperty) {
-                    EnvironmentVariablesNodeProperty envNodeProperty = (EnvironmentVariablesNodeProperty) nodeProperty;
-                    map.putAll(envNodeProperty.getEnvVars());
-                }
-            }
-        }
-        return map;
+        return new HashMap<>(GlobalNodePropertiesSnapshot.get());
     }
 
     /**
@@ -298,85 +252,14 @@ public class Utils {
 
         final Map<BuildWrapper, List<ParameterDefinition>> result = new LinkedHashMap<>();
 
-        List<ParameterDefinition> value = new ArrayList<>();
-
         for (BuildWrapper buildWrapper : buildWrappersList) {
-            final PropertyDescriptor[] propertyDescriptors;
-            try {
-                propertyDescriptors = Introspector.getBeanInfo(buildWrapper.getClass()).getPropertyDescriptors();
-            } catch (IntrospectionException e) {
-                if (LOGGER.isLoggable(Level.FINE)) {
-                    LOGGER.log(Level.FINE,
-                            String.format("Introspector.getBeanInfo failed for build wrapper class: [%s]",
-                                    buildWrapper.getClass()
-                                            .getCanonicalName()),
-                            e);
-                }
-                continue;
-            }
-            for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-                try {
-                    addParameterDefinitionsTo(value, buildWrapper, propertyDescriptor);
-                } catch (RuntimeException e) {
-                    if (LOGGER.isLoggable(Level.FINE)) {
-                        LOGGER.log(Level.FINE,
-                                String.format("Failed to add parameter [%s] to the ParameterDefinition list",
-                                        propertyDescriptor.getName()),
-                                e);
-                    }
-                }
-            }
+            // accessors are introspected once per build wrapper class
+            final List<ParameterDefinition> value = new ArrayList<>();
+            ParameterDefinitionAccessors.addParameterDefinitionsTo(value, buildWrapper);
             if (!value.isEmpty()) {
                 result.put(buildWrapper, value);
-                value = new ArrayList<>();
             }
         }
         return result.isEmpty() ? Collections.emptyMap() : result;
     }
-
-    private static void addParameterDefinitionsTo(List<ParameterDefinition> target, Object bean, PropertyDescriptor pd) {
-        if (ParameterDefinition.class.isAssignableFrom(pd.getPropertyType())) {
-            final ParameterDefinition param = read(bean, pd);
-            if (param != null) {
-                target.add(param);
-            }
-            return;
-        }
-        Iterable<?> iterable = null;
-
-        if (Iterable.class.isAssignableFrom(pd.getPropertyType())) {
-            iterable = read(bean, pd);
-        } else if (Object[].class.isAssignableFrom(pd.getPropertyType())) {
-            final Object[] array = read(bean, pd);
-            if (array != null)
-                iterable = Arrays.asList(array);
-        }
-        if (iterable == null)
-            return;
-
-        for (Object o : iterable) {
-            if (o instanceof ParameterDefinition) {
-                target.add((ParameterDefinition) o);
-            }
-        }
-    }
-
-    private static <T> T read(Object bean, PropertyDescriptor pd) {
-        final Method accessor = pd.getReadMethod();
-        if ((accessor != null) && (accessor.getParameterTypes().length == 0)) {
-            @SuppressWarnings("unchecked")
-            final T result = (T) ReflectionUtils.invokeMethod(accessor, bean);
-            return result;
-        }
-        final Field field = ReflectionUtils.findField(bean.getClass(), pd.getName());
-        if (field != null) {
-            final Object value = ReflectionUtils.getField(field, bean);
-            if (pd.getPropertyType().isInstance(value)) {
-                @SuppressWarnings("unchecked")
-                final T result = (T) value;
-                return result;
-            }
-        }
-        return null;
-    }
 }
@@ -5,7 +5,7 @@ if (window.makeStaplerProxy) {
 
 window.addEventListener("DOMContentLoaded", () => {
     document.querySelectorAll(".cascade-choice-parameter-data-holder").forEach((dataHolder) => {
-        const { name, paramName, randomName, proxyName } = dataHolder.dataset;
+        const { name, paramName, randomName, proxyName, choicesHash } = dataHolder.dataset;
         const referencedParameters = dataHolder.dataset.referencedParameters;
         if (referencedParameters === undefined || referencedParameters === null || referencedParameters.length === 0) {
             console.log(`[${name}] - cascade-choice-parameters.js#querySelectorAll#forEach - No parameters referenced!`);
@@ -15,7 +15,7 @@ window.addEventListener("DOMContentLoaded", () => {
         const filterable = dataHolder.dataset.filterable === "true";
         const filterLength = parseInt(dataHolder.dataset.filterLength);
 
-        UnoChoice.renderCascadeChoiceParameter(`#${paramName}`, filterable, name, randomName, filterLength, paramName, referencedParametersList, window[proxyName]);
+        UnoChoice.renderCascadeChoiceParameter(`#${paramName}`, filterable, name, randomName, filterLength, paramName, referencedParametersList, window[proxyName], choicesHash);
     });
 
     if (window.makeStaplerProxy && window.__old__makeStaplerProxy) {
@@ -5,7 +5,7 @@ if (window.makeStaplerProxy) {
 
 window.addEventListener("DOMContentLoaded", () => {
     document.querySelectorAll(".dynamic-reference-parameter-data-holder").forEach((dataHolder) => {
-        const { name, paramName, proxyName } = dataHolder.dataset;
+        const { name, paramName, proxyName, choicesHash } = dataHolder.dataset;
         const referencedParameters = dataHolder.dataset.referencedParameters;
         if (referencedParameters === undefined || referencedParameters === null || referencedParameters.length === 0) {
             console.log(`[${name}] - dynamic-reference-parameter.js#querySelectorAll#forEach - No parameters referenced!`);
@@ -13,7 +13,7 @@ window.addEventListener("DOMContentLoaded", () => {
         }
         const referencedParametersList = dataHolder.dataset.referencedParameters.split(",").map((val) => val.trim());
 
-        UnoChoice.renderDynamicRenderParameter(`#${paramName}`, name, paramName, referencedParametersList, window[proxyName]);
+        UnoChoice.renderDynamicRenderParameter(`#${paramName}`, name, paramName, referencedParametersList, window[proxyName], choicesHash);
 
         // update spinner id
         var rootElmt = document.querySelector(`#${paramName}`);
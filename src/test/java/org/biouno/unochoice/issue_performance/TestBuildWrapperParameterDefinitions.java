@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParameterDefinition;
+import hudson.model.StringParameterDefinition;
+import hudson.tasks.BuildWrapper;
+import org.biouno.unochoice.util.Utils;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@WithJenkins
+class TestBuildWrapperParameterDefinitions {
+
+    @Test
+    void findsParameterDefinitionsOfBuildWrappers(JenkinsRule j) throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("wrappers");
+        ParameterDefinition single = new StringParameterDefinition("single", "");
+        ParameterDefinition first = new StringParameterDefinition("first", "");
+        ParameterDefinition second = new StringParameterDefinition("second", "");
+        ParameterDefinition third = new StringParameterDefinition("third", "");
+        ParametersWrapper wrapper = new ParametersWrapper(single, Arrays.asList(first, second), new ParameterDefinition[] {third});
+        project.getBuildWrappersList().add(new EmptyWrapper());
+        project.getBuildWrappersList().add(wrapper);
+
+        for (int i = 0; i < 2; i++) {
+            Map<BuildWrapper, List<ParameterDefinition>> definitions = Utils.getBuildWrapperParameterDefinitions(project);
+            assertEquals(Collections.singleton(wrapper), definitions.keySet());
+            List<ParameterDefinition> found = definitions.get(wrapper);
+            assertEquals(4, found.size());
+            assertTrue(found.containsAll(Arrays.asList(single, first, second, third)));
+        }
+    }
+
+    public static class EmptyWrapper extends BuildWrapper {
+        public String getName() {
+            return "empty";
+        }
+    }
+
+    public static class ParametersWrapper extends BuildWrapper {
+        private final ParameterDefinition single;
+        private final List<ParameterDefinition> list;
+        private final ParameterDefinition[] array;
+
+        ParametersWrapper(ParameterDefinition single, List<ParameterDefinition> list, ParameterDefinition[] array) {
+            this.single = single;
+            this.list = list;
+            this.array = array;
+        }
+
+        public ParameterDefinition getSingle() {
+            return single;
+        }
+
+        public List<ParameterDefinition> getList() {
+            return list;
+        }
+
+        public ParameterDefinition[] getArray() {
+            return array;
+        }
+    }
+}
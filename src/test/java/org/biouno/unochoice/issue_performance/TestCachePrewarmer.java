@@ -0,0 +1,181 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.ParametersDefinitionProperty;
+import jenkins.model.Jenkins;
+import org.biouno.unochoice.AbstractUnoChoiceParameter;
+import org.biouno.unochoice.CachePrewarmer;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.ChoiceCache;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@WithJenkins
+class TestCachePrewarmer {
+
+    private static final String SCRIPT = "return ['a', 'b']";
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+    private static final String AUTHENTICATION_SCRIPT = "return [jenkins.model.Jenkins.getAuthentication2().getName()]";
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(AUTHENTICATION_SCRIPT, GroovyLanguage.get());
+        ChoiceCache.INSTANCE.clear();
+        CachePrewarmer.ENABLED = true;
+    }
+
+    @AfterEach
+    void tearDown() {
+        CachePrewarmer.ENABLED = false;
+    }
+
+    @Test
+    void savingAJobFillsTheChoiceCache() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("prewarm");
+        ChoiceParameter parameter = new ChoiceParameter(
+                "param",
+                "description",
+                "prewarm-random-name",
+                new GroovyScript(
+                        new SecureGroovyScript(SCRIPT, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                false,
+                1
+        );
+        parameter.setChoicesCacheTtl(600);
+        long prewarmed = CachePrewarmer.getPrewarmedCount();
+
+        project.addProperty(new ParametersDefinitionProperty(parameter));
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (CachePrewarmer.getPrewarmedCount() == prewarmed && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(CachePrewarmer.getPrewarmedCount() > prewarmed);
+        assertEquals(1, ChoiceCache.INSTANCE.size());
+
+        long hits = ChoiceCache.INSTANCE.getHits();
+        assertEquals(2, parameter.getChoices().size());
+        assertEquals(hits + 1, ChoiceCache.INSTANCE.getHits());
+    }
+
+    @Test
+    void scriptsAreNotEvaluatedAsSystem() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("prewarm-anonymous");
+        ChoiceParameter parameter = new ChoiceParameter(
+                "param",
+                "description",
+                "prewarm-anonymous-random-name",
+                new GroovyScript(
+                        new SecureGroovyScript(AUTHENTICATION_SCRIPT, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                false,
+                1
+        );
+        parameter.setChoicesCacheTtl(600);
+        long prewarmed = CachePrewarmer.getPrewarmedCount();
+
+        project.addProperty(new ParametersDefinitionProperty(parameter));
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (CachePrewarmer.getPrewarmedCount() == prewarmed && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(CachePrewarmer.getPrewarmedCount() > prewarmed);
+
+        // served from the cache, filled by the pre-warming
+        long hits = ChoiceCache.INSTANCE.getHits();
+        assertEquals(Collections.singletonList("anonymous"), new ArrayList<>(parameter.getChoices().values()));
+        assertEquals(hits + 1, ChoiceCache.INSTANCE.getHits());
+    }
+
+    @Test
+    void jobsThatAnonymousCannotReadAreNotPrewarmed() throws Exception {
+        FreeStyleProject secret = j.createFreeStyleProject("prewarm-secret");
+        FreeStyleProject visible = j.createFreeStyleProject("prewarm-visible");
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.ADMINISTER).everywhere().to("admin")
+                .grant(Jenkins.READ).everywhere().toEveryone()
+                .grant(Item.READ).onItems(visible).toEveryone());
+        ChoiceParameter secretParameter = createParameter("prewarm-secret-random-name");
+        ChoiceParameter visibleParameter = createParameter("prewarm-visible-random-name");
+        long prewarmed = CachePrewarmer.getPrewarmedCount();
+
+        // pre-warmed one after the other
+        secret.addProperty(new ParametersDefinitionProperty(secretParameter));
+        visible.addProperty(new ParametersDefinitionProperty(visibleParameter));
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (CachePrewarmer.getPrewarmedCount() == prewarmed && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(prewarmed + 1, CachePrewarmer.getPrewarmedCount());
+        assertEquals(1, ChoiceCache.INSTANCE.size());
+    }
+
+    private static ChoiceParameter createParameter(String randomName) throws Exception {
+        ChoiceParameter parameter = new ChoiceParameter(
+                "param",
+                "description",
+                randomName,
+                new GroovyScript(
+                        new SecureGroovyScript(SCRIPT, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                false,
+                1
+        );
+        parameter.setChoicesCacheTtl(600);
+        return parameter;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.StringParameterDefinition;
+import net.sf.json.JSONObject;
+import org.biouno.unochoice.CascadeChoiceParameter;
+import org.biouno.unochoice.DynamicReferenceParameter;
+import org.biouno.unochoice.ProjectIndex;
+import org.biouno.unochoice.model.GroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@WithJenkins
+class TestCascadeBatchUpdate {
+
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+
+    @Test
+    void evaluatesTheAffectedParametersInOrder(JenkinsRule j) throws Exception {
+        CascadeChoiceParameter b = cascade("B", "return [A + '1', A + '2']", "A");
+        CascadeChoiceParameter c = cascade("C", "return [B + 'x', B + 'y:selected']", "B");
+        CascadeChoiceParameter d = cascade("D", "return [C + '!']", "C,A");
+        DynamicReferenceParameter html = new DynamicReferenceParameter("HTML", "description", "batch-html",
+                script("return '<b>' + D + '</b>'"), DynamicReferenceParameter.ELEMENT_TYPE_FORMATTED_HTML, "D", false);
+        // the value of a dynamic reference parameter is only known once rendered in the UI
+        CascadeChoiceParameter afterHtml = cascade("AFTER_HTML", "return [HTML]", "HTML");
+        // parameters in a cycle are not evaluated
+        CascadeChoiceParameter e = cascade("E", "return [F]", "F");
+        CascadeChoiceParameter f = cascade("F", "return [E]", "E,B");
+
+        FreeStyleProject project = j.createFreeStyleProject("batch");
+        // declared out of order, evaluated after their referenced parameters
+        project.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition("A", "a"),
+                html, d, afterHtml, e, f, c, b));
+        ProjectIndex.invalidate();
+
+        Map<String, Object> response = b.updateCascadeForUI(new JSONObject()
+                .element("A", "a").element("B", "a2").element("C", "").element("D", "").element("HTML", ""), null);
+        Map<String, Object> choices = choices(response);
+
+        assertEquals(Arrays.asList("C", "D", "HTML"), new ArrayList<>(choices.keySet()));
+        assertEquals(Arrays.asList("a2x", "a2y:selected"), values(choices.get("C")));
+        assertEquals(Collections.singletonList("a2y!"), values(choices.get("D")));
+        assertEquals("<b>a2y!</b>", choices.get("HTML"));
+        assertEquals("a2y", d.getParameters().get("C"));
+        assertEquals(Collections.singletonList("HTML"), response.get("pending"));
+    }
+
+    @Test
+    void stopsAtParametersWhoseValueIsOnlyKnownOnceRendered(JenkinsRule j) throws Exception {
+        CascadeChoiceParameter a = cascade("A", "return ['a']", "");
+        CascadeChoiceParameter b = new CascadeChoiceParameter("B", "description", "batch-B",
+                script("return [A + '1', A + '2:selected']"), CascadeChoiceParameter.PARAMETER_TYPE_CHECK_BOX, "A",
+                false, 0);
+        CascadeChoiceParameter c = cascade("C", "return [B + '!']", "B");
+        CascadeChoiceParameter d = cascade("D", "return [C + '?']", "C");
+
+        FreeStyleProject project = j.createFreeStyleProject("batch-checkbox");
+        project.addProperty(new ParametersDefinitionProperty(a, b, c, d));
+        ProjectIndex.invalidate();
+
+        Map<String, Object> response = a.updateCascadeForUI(new JSONObject()
+                .element("A", "a").element("B", "").element("C", "").element("D", ""), null);
+
+        // the UI updates the parameters referencing the checkboxes once rendered
+        assertEquals(Collections.singletonList("B"), new ArrayList<>(choices(response).keySet()));
+        assertEquals(Collections.singletonList("B"), response.get("pending"));
+    }
+
+    private static CascadeChoiceParameter cascade(String name, String script, String referencedParameters) throws Exception {
+        return new CascadeChoiceParameter(name, "description", "batch-" + name, script(script),
+                CascadeChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, referencedParameters, false, 0);
+    }
+
+    private static GroovyScript script(String script) throws Exception {
+        ScriptApproval.get().preapprove(script, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+        return new GroovyScript(new SecureGroovyScript(script, false, null), new SecureGroovyScript(FALLBACK_SCRIPT, false, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> choices(Map<String, Object> response) {
+        return (Map<String, Object>) response.get("choices");
+    }
+
+    private static List<Object> values(Object choices) {
+        return new ArrayList<>((Collection<?>) ((List<?>) choices).get(0));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.StringParameterDefinition;
+import net.sf.json.JSONObject;
+import org.biouno.unochoice.CascadeChoiceParameter;
+import org.biouno.unochoice.ProjectIndex;
+import org.biouno.unochoice.model.GroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@WithJenkins
+class TestCascadeGraph {
+
+    private static final String BARRIER = TestCascadeGraph.class.getName() + ".barrier";
+    private static final String EVALUATIONS = TestCascadeGraph.class.getName() + ".evaluations";
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+    // only completes if both branches are evaluated at the same time
+    private static final String BRANCH_SCRIPT = "System.getProperties().get('" + BARRIER + "')"
+            + ".await(30, java.util.concurrent.TimeUnit.SECONDS); return [ROOT + NAME]";
+
+    @AfterEach
+    void tearDown() {
+        System.getProperties().remove(BARRIER);
+        System.getProperties().remove(EVALUATIONS);
+    }
+
+    @Test
+    void evaluatesIndependentBranchesConcurrently(JenkinsRule j) throws Exception {
+        System.getProperties().put(BARRIER, new CyclicBarrier(2));
+        CascadeChoiceParameter root = cascade("ROOT", "return [A]", "A");
+        CascadeChoiceParameter left = cascade("LEFT", BRANCH_SCRIPT.replace("NAME", "'-left'"), "ROOT");
+        CascadeChoiceParameter right = cascade("RIGHT", BRANCH_SCRIPT.replace("NAME", "'-right'"), "ROOT");
+        CascadeChoiceParameter both = cascade("BOTH", "return [LEFT + RIGHT]", "LEFT,RIGHT");
+
+        FreeStyleProject project = j.createFreeStyleProject("branches");
+        project.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition("A", "a"),
+                root, left, right, both));
+        ProjectIndex.invalidate();
+
+        Map<String, Object> choices = choices(root.updateCascadeForUI(new JSONObject().element("A", "a").element("ROOT", "a"), null));
+
+        assertEquals(Arrays.asList("LEFT", "RIGHT", "BOTH"), new ArrayList<>(choices.keySet()));
+        assertEquals(Collections.singletonList("a-left"), values(choices.get("LEFT")));
+        assertEquals(Collections.singletonList("a-right"), values(choices.get("RIGHT")));
+        assertEquals(Collections.singletonList("a-lefta-right"), values(choices.get("BOTH")));
+    }
+
+    @Test
+    void usesTheFallbackScriptOfBranchesThatTimeOut(JenkinsRule j) throws Exception {
+        AtomicInteger evaluations = new AtomicInteger();
+        System.getProperties().put(EVALUATIONS, evaluations);
+        CascadeChoiceParameter root = cascade("ROOT", "return [A]", "A");
+        CascadeChoiceParameter fast = cascade("FAST", "return [ROOT + '-fast']", "ROOT");
+        CascadeChoiceParameter slow = cascade("SLOW", "System.getProperties().get('" + EVALUATIONS + "')"
+                + ".incrementAndGet(); Thread.sleep(30000); return [ROOT + '-slow']", "ROOT");
+        slow.setEvaluationTimeout(1);
+
+        FreeStyleProject project = j.createFreeStyleProject("timeouts");
+        project.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition("A", "a"),
+                root, fast, slow));
+        ProjectIndex.invalidate();
+
+        long start = System.nanoTime();
+        Map<String, Object> choices = choices(root.updateCascadeForUI(new JSONObject().element("A", "a").element("ROOT", "a"), null));
+
+        assertEquals(Collections.singletonList("a-fast"), values(choices.get("FAST")));
+        assertEquals(Collections.singletonList("EMPTY!"), values(choices.get("SLOW")));
+        // the script that timed out is not evaluated again
+        assertEquals(1, evaluations.get());
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 20);
+    }
+
+    @Test
+    void followsTheChangesOfTheJobParameters(JenkinsRule j) throws Exception {
+        CascadeChoiceParameter root = cascade("ROOT", "return [A]", "A");
+        CascadeChoiceParameter first = cascade("FIRST", "return [ROOT + '1']", "ROOT");
+
+        FreeStyleProject project = j.createFreeStyleProject("changes");
+        project.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition("A", "a"), root, first));
+        ProjectIndex.invalidate();
+        assertEquals(Collections.singletonList("FIRST"), new ArrayList<>(choices(root.updateCascadeForUI(new JSONObject().element("ROOT", "a"), null)).keySet()));
+
+        CascadeChoiceParameter second = cascade("SECOND", "return [ROOT + '2']", "ROOT");
+        project.removeProperty(ParametersDefinitionProperty.class);
+        project.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition("A", "a"), root, second));
+        assertEquals(Collections.singletonList("SECOND"), new ArrayList<>(choices(root.updateCascadeForUI(new JSONObject().element("ROOT", "a"), null)).keySet()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> choices(Map<String, Object> response) {
+        return (Map<String, Object>) response.get("choices");
+    }
+
+    private static CascadeChoiceParameter cascade(String name, String script, String referencedParameters) throws Exception {
+        ScriptApproval.get().preapprove(script, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+        return new CascadeChoiceParameter(name, "description", "graph-" + name,
+                new GroovyScript(new SecureGroovyScript(script, false, null), new SecureGroovyScript(FALLBACK_SCRIPT, false, null)),
+                CascadeChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, referencedParameters, false, 0);
+    }
+
+    private static List<Object> values(Object choices) {
+        return new ArrayList<>((Collection<?>) ((List<?>) choices).get(0));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.issue_performance;
+
+import org.biouno.unochoice.CascadeChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.Stapler;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@WithJenkins
+class TestCascadeSessionState {
+
+    @Test
+    void sessionsDoNotShareTheReferencedValues(JenkinsRule j) throws Exception {
+        CascadeChoiceParameter parameter = new CascadeChoiceParameter("param", "description", "session-random-name",
+                new GroovyScript(new SecureGroovyScript("return [VALUE]", false, null),
+                        new SecureGroovyScript("return ['EMPTY!']", false, null)),
+                CascadeChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "VALUE", false, 0);
+
+        // each call is a request of a new web client, i.e. of another session
+        assertEquals(Collections.singletonMap("VALUE", "a"), j.executeOnServer(() -> {
+            update(parameter, "VALUE=a");
+            return parameter.getParameters();
+        }));
+        assertTrue(j.executeOnServer(parameter::getParameters).isEmpty());
+        // without a request, the parameter keeps its own values
+        assertTrue(parameter.getParameters().isEmpty());
+    }
+
+    @Test
+    void readingTheValuesDoesNotCreateASession(JenkinsRule j) throws Exception {
+        CascadeChoiceParameter parameter = parameter();
+
+        assertNull(j.executeOnServer(() -> {
+            parameter.getParameters().clear();
+            return Stapler.getCurrentRequest2().getSession(false);
+        }));
+    }
+
+    @Test
+    void reconfiguredParametersKeepTheSessionValues(JenkinsRule j) throws Exception {
+        CascadeChoiceParameter parameter = parameter();
+        // e.g. after the job is saved or reloaded
+        CascadeChoiceParameter reconfigured = parameter();
+
+        assertEquals(Collections.singletonMap("VALUE", "a"), j.executeOnServer(() -> {
+            update(parameter, "VALUE=a");
+            return reconfigured.getParameters();
+        }));
+    }
+
+    private static CascadeChoiceParameter parameter() throws Exception {
+        return new CascadeChoiceParameter("param", "description", "session-random-name",
+                new GroovyScript(new SecureGroovyScript("return [VALUE]", false, null),
+                        new SecureGroovyScript("return ['EMPTY!']", false, null)),
+                CascadeChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "VALUE", false, 0);
+    }
+
+    private static void update(CascadeChoiceParameter parameter, String parameters) {
+        try {
+            parameter.doUpdate(parameters);
+        } catch (HttpResponses.HttpResponseException response) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.Descriptor;
+import org.biouno.unochoice.AbstractUnoChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.ChoiceCache;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@WithJenkins
+class TestChoiceCache {
+
+    private static final String SCRIPT = "return [VALUE, System.nanoTime().toString()]";
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+        ChoiceCache.INSTANCE.clear();
+    }
+
+    @Test
+    void resultsAreCachedPerReferencedParameterValues() throws Descriptor.FormException {
+        ChoiceParameter parameter = createParameter();
+        parameter.setChoicesCacheTtl(60);
+
+        Map<Object, Object> a = parameter.getChoices(Collections.singletonMap("VALUE", "a"));
+        Map<Object, Object> b = parameter.getChoices(Collections.singletonMap("VALUE", "b"));
+
+        assertEquals(a, parameter.getChoices(Collections.singletonMap("VALUE", "a")));
+        assertEquals(b, parameter.getChoices(Collections.singletonMap("VALUE", "b")));
+        assertNotEquals(a, b);
+        assertEquals(2, ChoiceCache.INSTANCE.size());
+        assertThrows(UnsupportedOperationException.class, () -> a.put("c", "c"));
+    }
+
+    @Test
+    void resultsAreNotCachedByDefault() throws Descriptor.FormException {
+        ChoiceParameter parameter = createParameter();
+
+        Map<Object, Object> a = parameter.getChoices(Collections.singletonMap("VALUE", "a"));
+
+        assertNotEquals(a, parameter.getChoices(Collections.singletonMap("VALUE", "a")));
+        assertEquals(0, ChoiceCache.INSTANCE.size());
+    }
+
+    @Test
+    void changingTheConfigurationInvalidatesTheCache() throws Descriptor.FormException {
+        ChoiceParameter parameter = createParameter();
+        parameter.setChoicesCacheTtl(60);
+        Map<Object, Object> a = parameter.getChoices(Collections.singletonMap("VALUE", "a"));
+
+        ChoiceParameter updated = createParameter();
+        updated.setChoicesCacheTtl(60);
+
+        assertNotEquals(a, updated.getChoices(Collections.singletonMap("VALUE", "a")));
+    }
+
+    private static ChoiceParameter createParameter() throws Descriptor.FormException {
+        return new ChoiceParameter(
+                "param",
+                "description",
+                "random-name",
+                new GroovyScript(
+                        new SecureGroovyScript(SCRIPT, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                false,
+                1
+        );
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.StringParameterDefinition;
+import net.sf.json.JSONObject;
+import org.biouno.unochoice.CascadeChoiceParameter;
+import org.biouno.unochoice.DynamicReferenceParameter;
+import org.biouno.unochoice.ProjectIndex;
+import org.biouno.unochoice.model.GroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.kohsuke.stapler.HttpResponses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@WithJenkins
+class TestChoicesHash {
+
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+
+    @Test
+    void unchangedChoicesAreNotSentAgain(JenkinsRule j) throws Exception {
+        CascadeChoiceParameter b = cascade("B", "return [A + '1', A + '2']", "A");
+        // the choices of C do not depend on the value of B
+        CascadeChoiceParameter c = cascade("C", "return [B.substring(0, 1)]", "B");
+        DynamicReferenceParameter html = new DynamicReferenceParameter("HTML", "description", "hash-html",
+                script("return '<b>' + B + '</b>'"), DynamicReferenceParameter.ELEMENT_TYPE_FORMATTED_HTML, "B", false);
+
+        FreeStyleProject project = j.createFreeStyleProject("hash");
+        project.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition("A", "a"), b, c, html));
+        ProjectIndex.invalidate();
+
+        Map<String, Object> response = b.updateCascadeForUI(new JSONObject().element("A", "a").element("B", "a1"), null);
+        Map<String, Object> hashes = map(response.get("hashes"));
+        assertEquals(Arrays.asList("C", "HTML"), new ArrayList<>(hashes.keySet()));
+        assertEquals(Arrays.asList("C", "HTML"), new ArrayList<>(map(response.get("choices")).keySet()));
+
+        // same values: nothing to render
+        response = b.updateCascadeForUI(new JSONObject().element("A", "a").element("B", "a1"), JSONObject.fromObject(hashes));
+        assertEquals(hashes, map(response.get("hashes")));
+        assertEquals(Collections.emptyMap(), map(response.get("choices")));
+
+        // only the HTML changes
+        response = b.updateCascadeForUI(new JSONObject().element("A", "a").element("B", "a2"), JSONObject.fromObject(hashes));
+        assertEquals(hashes.get("C"), map(response.get("hashes")).get("C"));
+        assertNotEquals(hashes.get("HTML"), map(response.get("hashes")).get("HTML"));
+        assertEquals(Collections.singletonMap("HTML", "<b>a2</b>"), map(response.get("choices")));
+    }
+
+    @Test
+    void unchangedChoicesKeepTheValueSelectedInTheUI(JenkinsRule j) throws Exception {
+        CascadeChoiceParameter a = cascade("A", "return ['a1', 'a2']", "");
+        // the choices of B do not depend on the value of A
+        CascadeChoiceParameter b = cascade("B", "return ['b1', 'b2']", "A");
+        CascadeChoiceParameter c = cascade("C", "return [B + '!']", "B");
+
+        FreeStyleProject project = j.createFreeStyleProject("selected");
+        project.addProperty(new ParametersDefinitionProperty(a, b, c));
+        ProjectIndex.invalidate();
+
+        Map<String, Object> hashes = map(a.updateCascadeForUI(new JSONObject().element("A", "a1"), null).get("hashes"));
+
+        // the user selected b2, that is not the first choice of B
+        Map<String, Object> response = a.updateCascadeForUI(new JSONObject().element("A", "a2").element("B", "b2")
+                .element("C", "b1!"), JSONObject.fromObject(hashes));
+        assertEquals(hashes.get("B"), map(response.get("hashes")).get("B"));
+        assertEquals(Collections.singletonList("C"), new ArrayList<>(map(response.get("choices")).keySet()));
+        assertEquals(Collections.singletonList("b2!"),
+                new ArrayList<>((Collection<?>) ((List<?>) map(response.get("choices")).get("C")).get(0)));
+    }
+
+    @Test
+    void respondsNotModifiedWithTheHashOfTheChoices(JenkinsRule j) throws Exception {
+        CascadeChoiceParameter b = cascade("B", "return [A + '1', A + '2']", "A");
+        CascadeChoiceParameter c = cascade("C", "return [B.substring(0, 1)]", "B");
+        DynamicReferenceParameter html = new DynamicReferenceParameter("HTML", "description", "hash-html",
+                script("return '<b>' + B + '</b>'"), DynamicReferenceParameter.ELEMENT_TYPE_FORMATTED_HTML, "B", false);
+
+        FreeStyleProject project = j.createFreeStyleProject("not-modified");
+        project.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition("A", "a"), b, c, html));
+        ProjectIndex.invalidate();
+
+        Map<String, Object> hashes = map(b.updateCascadeForUI(new JSONObject().element("A", "a").element("B", "a1"), null).get("hashes"));
+        JSONObject parameters = new JSONObject().element("B", "a2");
+
+        assertThrows(HttpResponses.HttpResponseException.class,
+                () -> c.updateAndGetChoicesForUI(parameters, (String) hashes.get("C")));
+        // as sent in the ETag header
+        assertThrows(HttpResponses.HttpResponseException.class,
+                () -> c.updateAndGetChoicesForUI(parameters, '"' + (String) hashes.get("C") + '"'));
+        assertEquals("a2", c.getParameters().get("B"));
+        assertEquals(Collections.singletonList("a"), new ArrayList<>((Collection<?>) c.updateAndGetChoicesForUI(parameters, "other").get(0)));
+
+        assertEquals("<b>a2</b>", html.updateAndGetChoicesAsStringForUI(parameters, (String) hashes.get("HTML")));
+        assertThrows(HttpResponses.HttpResponseException.class,
+                () -> html.updateAndGetChoicesAsStringForUI(new JSONObject().element("B", "a1"), (String) hashes.get("HTML")));
+    }
+
+    @Test
+    void theHashRenderedWithThePageAnswersTheFirstUpdate(JenkinsRule j) throws Exception {
+        CascadeChoiceParameter b = cascade("B", "return [A + '1', A + '2']", "A");
+        DynamicReferenceParameter html = new DynamicReferenceParameter("HTML", "description", "hash-html",
+                script("return '<b>' + A + '</b>'"), DynamicReferenceParameter.ELEMENT_TYPE_FORMATTED_HTML, "A", false);
+        DynamicReferenceParameter list = new DynamicReferenceParameter("LIST", "description", "hash-list",
+                script("return [A + '!']"), DynamicReferenceParameter.ELEMENT_TYPE_ORDERED_LIST, "A", false);
+
+        FreeStyleProject project = j.createFreeStyleProject("first-render");
+        project.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition("A", "a"), b, html, list));
+        ProjectIndex.invalidate();
+
+        // as rendered with the page
+        JSONObject parameters = new JSONObject().element("A", "a");
+        b.updateAndGetChoicesForUI(parameters, null);
+        html.updateAndGetChoicesAsStringForUI(parameters, null);
+        list.updateAndGetChoicesForUI(parameters, null);
+        String hash = b.getChoicesHashForUI();
+        String htmlHash = html.getChoicesHashForUI();
+        String listHash = list.getChoicesHashForUI();
+
+        assertThrows(HttpResponses.HttpResponseException.class, () -> b.updateAndGetChoicesForUI(parameters, hash));
+        assertThrows(HttpResponses.HttpResponseException.class,
+                () -> html.updateAndGetChoicesAsStringForUI(parameters, htmlHash));
+        assertThrows(HttpResponses.HttpResponseException.class, () -> list.updateAndGetChoicesForUI(parameters, listHash));
+        assertEquals(Arrays.asList("b1", "b2"), new ArrayList<>((Collection<?>)
+                b.updateAndGetChoicesForUI(new JSONObject().element("A", "b"), hash).get(0)));
+    }
+
+    private static CascadeChoiceParameter cascade(String name, String script, String referencedParameters) throws Exception {
+        return new CascadeChoiceParameter(name, "description", "hash-" + name, script(script),
+                CascadeChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, referencedParameters, false, 0);
+    }
+
+    private static GroovyScript script(String script) throws Exception {
+        ScriptApproval.get().preapprove(script, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+        return new GroovyScript(new SecureGroovyScript(script, false, null), new SecureGroovyScript(FALLBACK_SCRIPT, false, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return (Map<String, Object>) value;
+    }
+}
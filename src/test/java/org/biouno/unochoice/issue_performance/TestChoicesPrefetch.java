@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.Descriptor;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import org.biouno.unochoice.AbstractUnoChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.htmlunit.html.HtmlForm;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@WithJenkins
+class TestChoicesPrefetch {
+
+    private static final String BARRIER = TestChoicesPrefetch.class.getName() + ".barrier";
+    // only completes if both parameters are evaluated at the same time
+    private static final String SCRIPT = "System.getProperties().get('" + BARRIER + "')"
+            + ".await(30, java.util.concurrent.TimeUnit.SECONDS); return ['prefetched']";
+    private static final String EVALUATIONS = TestChoicesPrefetch.class.getName() + ".evaluations";
+    private static final String SLOW_SCRIPT = "System.getProperties().get('" + EVALUATIONS + "').incrementAndGet(); "
+            + "Thread.sleep(30000); return ['prefetched']";
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(SLOW_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+        System.getProperties().put(BARRIER, new CyclicBarrier(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.getProperties().remove(BARRIER);
+        System.getProperties().remove(EVALUATIONS);
+    }
+
+    @Test
+    void parametersOfAPageAreEvaluatedConcurrently() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("prefetch");
+        project.addProperty(new ParametersDefinitionProperty(createParameter("first"), createParameter("second")));
+
+        JenkinsRule.WebClient wc = j.createWebClient();
+        // the build page without parameters answers 405
+        wc.setThrowExceptionOnFailingStatusCode(false);
+        HtmlForm form = wc.getPage(project, "build").getFormByName("parameters");
+
+        assertEquals(2, form.getSelectsByName("value").size());
+        form.getSelectsByName("value").forEach(select -> assertEquals("prefetched", select.getOption(0).getText()));
+    }
+
+    @Test
+    void parametersWhoseEvaluationTimedOutUseTheFallbackScript() throws Exception {
+        AtomicInteger evaluations = new AtomicInteger();
+        System.getProperties().put(EVALUATIONS, evaluations);
+        ChoiceParameter first = createParameter("first", SLOW_SCRIPT);
+        ChoiceParameter second = createParameter("second", SLOW_SCRIPT);
+        first.setEvaluationTimeout(1);
+        second.setEvaluationTimeout(1);
+        FreeStyleProject project = j.createFreeStyleProject("prefetch-timeout");
+        project.addProperty(new ParametersDefinitionProperty(first, second));
+
+        JenkinsRule.WebClient wc = j.createWebClient();
+        wc.setThrowExceptionOnFailingStatusCode(false);
+        HtmlForm form = wc.getPage(project, "build").getFormByName("parameters");
+
+        form.getSelectsByName("value").forEach(select -> assertEquals("EMPTY!", select.getOption(0).getText()));
+        // the scripts that timed out are not evaluated again when rendered
+        assertEquals(2, evaluations.get());
+    }
+
+    private static ChoiceParameter createParameter(String name) throws Descriptor.FormException {
+        return createParameter(name, SCRIPT);
+    }
+
+    private static ChoiceParameter createParameter(String name, String script) throws Descriptor.FormException {
+        return new ChoiceParameter(
+                name,
+                "description",
+                name + "-prefetch-random-name",
+                new GroovyScript(
+                        new SecureGroovyScript(script, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                false,
+                1
+        );
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.Descriptor;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import org.biouno.unochoice.AbstractUnoChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.ProjectIndex;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.CircuitBreaker;
+import org.biouno.unochoice.util.ScriptEvaluationExecutor;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@WithJenkins
+class TestCircuitBreaker {
+
+    private static final String FAILING_SCRIPT = "throw new IllegalStateException('backend is down')";
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+    private static final String ASSERTING_SCRIPT = "assert false";
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        ScriptApproval.get().preapprove(FAILING_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(ASSERTING_SCRIPT, GroovyLanguage.get());
+        CircuitBreaker.reset();
+    }
+
+    @Test
+    void failingScriptsOpenTheBreaker() throws Exception {
+        ChoiceParameter parameter = new ChoiceParameter(
+                "param",
+                "description",
+                "breaker-random-name",
+                new GroovyScript(
+                        new SecureGroovyScript(FAILING_SCRIPT, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                false,
+                1
+        );
+        attach(parameter, "breaker");
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Collections.singletonList("EMPTY!"), Arrays.asList(parameter.getChoices().values().toArray()));
+        }
+
+        CircuitBreaker breaker = CircuitBreaker.forParameter("breaker", "breaker-random-name", "param");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.getShortCircuitedCount() > 0);
+        assertEquals(1, breaker.getTransitions().size());
+
+        j.createWebClient().goTo("manage/active-choices-status");
+    }
+
+    @Test
+    void errorsAreRecordedAsFailures() throws Exception {
+        ChoiceParameter parameter = new ChoiceParameter(
+                "param",
+                "description",
+                "breaker-error-random-name",
+                new GroovyScript(
+                        new SecureGroovyScript(ASSERTING_SCRIPT, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                false,
+                1
+        );
+        attach(parameter, "breaker-error");
+
+        // the default failure threshold
+        for (int i = 0; i < 5; i++) {
+            // evaluated inline in the evaluation thread, where the AssertionError is not wrapped
+            assertThrows(Exception.class, () -> ScriptEvaluationExecutor.INSTANCE.evaluate(parameter::getChoices, 30));
+        }
+
+        CircuitBreaker breaker = CircuitBreaker.forParameter("breaker-error", "breaker-error-random-name", "param");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(Collections.singletonList("EMPTY!"), Arrays.asList(parameter.getChoices().values().toArray()));
+    }
+
+    @Test
+    void breakersOfParametersWithoutJobAreNotKept() {
+        CircuitBreaker breaker = CircuitBreaker.forParameter(null, "unknown-random-name", "param");
+        breaker.recordFailure("backend is down");
+
+        assertNotSame(breaker, CircuitBreaker.forParameter(null, "unknown-random-name", "param"));
+        assertFalse(CircuitBreaker.all().contains(breaker));
+    }
+
+    @Test
+    void breakersAreKeptPerJob() throws Exception {
+        FreeStyleProject original = j.createFreeStyleProject("original");
+        j.createFreeStyleProject("copy");
+
+        CircuitBreaker breaker = CircuitBreaker.forParameter("original", "copied-random-name", "param");
+        assertNotSame(breaker, CircuitBreaker.forParameter("copy", "copied-random-name", "param"));
+        breaker.recordFailure("backend is down");
+        assertEquals(0, CircuitBreaker.forParameter("copy", "copied-random-name", "param").getConsecutiveFailures());
+
+        original.delete();
+        assertFalse(CircuitBreaker.all().contains(breaker));
+        assertEquals(1, CircuitBreaker.all().size());
+    }
+
+    private void attach(ChoiceParameter parameter, String name) throws Exception {
+        j.createFreeStyleProject(name).addProperty(new ParametersDefinitionProperty(parameter));
+        // remembers the job of the parameter
+        ProjectIndex.invalidate();
+        ProjectIndex.findJobByParameterUUID(parameter.getRandomName());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import groovy.lang.Binding;
+import hudson.model.Descriptor;
+import org.biouno.unochoice.model.CompiledScriptCache;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.model.ScriptClassLoader;
+import org.codehaus.groovy.control.MultipleCompilationErrorsException;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@WithJenkins
+class TestCompiledScriptCache {
+
+    private static final String SCRIPT = "return [VALUE, 'b']";
+    private static final String UNAPPROVED_SCRIPT = "return ['not approved']";
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+    private static final String SANDBOXED_SCRIPT = "class Item { String name }\n"
+            + "def identity(value) { value }\n"
+            + "return [identity(VALUE), new Item(name: 'b').name]";
+
+    // the cache is cleared while the script is running
+    private static final String CLEARING_SCRIPT = "class Item { String name }\n"
+            + "def first = new Item(name: VALUE)\n"
+            + "org.biouno.unochoice.model.CompiledScriptCache.INSTANCE.clear()\n"
+            + "return [first.name, new Item(name: 'b').name].collect { it.toUpperCase() }";
+
+    // rejected by the base compiler configuration of script-security
+    private static final String AST_TRANSFORM_SCRIPT = "@groovy.transform.ASTTest(value = { assert true })\n"
+            + "def value = 1\n"
+            + "return 'transformed'";
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(CLEARING_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(AST_TRANSFORM_SCRIPT, GroovyLanguage.get());
+        CompiledScriptCache.INSTANCE.clear();
+    }
+
+    @Test
+    void identicalScriptsAreCompiledOnce() throws Descriptor.FormException {
+        GroovyScript first = new GroovyScript(new SecureGroovyScript(SCRIPT, false, null),
+                new SecureGroovyScript(FALLBACK_SCRIPT, false, null));
+        GroovyScript second = new GroovyScript(new SecureGroovyScript(SCRIPT, false, null),
+                new SecureGroovyScript(FALLBACK_SCRIPT, false, null));
+
+        long misses = CompiledScriptCache.INSTANCE.getMisses();
+        long hits = CompiledScriptCache.INSTANCE.getHits();
+
+        assertEquals(Arrays.asList("a", "b"), first.eval(Collections.singletonMap("VALUE", "a")));
+        assertEquals(Arrays.asList("c", "b"), second.eval(Collections.singletonMap("VALUE", "c")));
+
+        assertEquals(misses + 1, CompiledScriptCache.INSTANCE.getMisses());
+        assertEquals(hits + 1, CompiledScriptCache.INSTANCE.getHits());
+    }
+
+    @Test
+    void sandboxedScriptsMayDefineMethodsAndClasses() throws Descriptor.FormException {
+        GroovyScript script = new GroovyScript(new SecureGroovyScript(SANDBOXED_SCRIPT, true, null),
+                new SecureGroovyScript(FALLBACK_SCRIPT, false, null));
+
+        assertEquals(Arrays.asList("a", "b"), script.eval(Collections.singletonMap("VALUE", "a")));
+        // with the cached class
+        assertEquals(Arrays.asList("c", "b"), script.eval(Collections.singletonMap("VALUE", "c")));
+    }
+
+    @Test
+    void scriptsEvictedWhileRunningKeepTheirClasses() throws Descriptor.FormException {
+        GroovyScript script = new GroovyScript(new SecureGroovyScript(CLEARING_SCRIPT, false, null),
+                new SecureGroovyScript(FALLBACK_SCRIPT, false, null));
+
+        long misses = CompiledScriptCache.INSTANCE.getMisses();
+        assertEquals(Arrays.asList("A", "B"), script.eval(Collections.singletonMap("VALUE", "a")));
+        assertEquals(Arrays.asList("C", "B"), script.eval(Collections.singletonMap("VALUE", "c")));
+        // compiled again after each clear
+        assertEquals(misses + 2, CompiledScriptCache.INSTANCE.getMisses());
+        assertEquals(0, CompiledScriptCache.INSTANCE.size());
+    }
+
+    @Test
+    void cachedScriptsAreCompiledAsUncachedScripts() throws Exception {
+        for (String text : Arrays.asList(SCRIPT, AST_TRANSFORM_SCRIPT)) {
+            assertEquals(outcome(() -> new SecureGroovyScript(text, false, null)
+                            .evaluate(ScriptClassLoader.get(), binding(), null)),
+                    outcome(() -> CompiledScriptCache.INSTANCE.evaluate(new SecureGroovyScript(text, false, null),
+                            ScriptClassLoader.get(), binding())),
+                    text);
+        }
+        assertEquals(MultipleCompilationErrorsException.class, outcome(() -> CompiledScriptCache.INSTANCE.evaluate(
+                new SecureGroovyScript(AST_TRANSFORM_SCRIPT, false, null), ScriptClassLoader.get(), binding())));
+    }
+
+    @Test
+    void unapprovedScriptsStillUseTheFallback() throws Descriptor.FormException {
+        GroovyScript script = new GroovyScript(new SecureGroovyScript(UNAPPROVED_SCRIPT, false, null),
+                new SecureGroovyScript(FALLBACK_SCRIPT, false, null));
+
+        assertEquals(Collections.singletonList("EMPTY!"), script.eval());
+        assertEquals(Collections.singletonList("EMPTY!"), script.eval());
+    }
+
+    private static Binding binding() {
+        return new Binding(Collections.singletonMap("VALUE", "a"));
+    }
+
+    /**
+     * @return the result of the evaluation, or the class of the exception thrown
+     */
+    private static Object outcome(Callable<Object> evaluation) {
+        try {
+            return evaluation.call();
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+}
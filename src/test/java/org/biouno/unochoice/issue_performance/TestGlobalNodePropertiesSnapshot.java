@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.slaves.EnvironmentVariablesNodeProperty;
+import org.biouno.unochoice.util.GlobalNodePropertiesSnapshot;
+import org.biouno.unochoice.util.Utils;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@WithJenkins
+class TestGlobalNodePropertiesSnapshot {
+
+    @Test
+    void snapshotIsSharedUntilTheConfigurationIsSaved(JenkinsRule j) throws Exception {
+        j.jenkins.getGlobalNodeProperties().add(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("FIRST", "1")));
+
+        Map<String, Object> snapshot = GlobalNodePropertiesSnapshot.get();
+        assertEquals("1", snapshot.get("FIRST"));
+        assertSame(snapshot, GlobalNodePropertiesSnapshot.get());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put("FIRST", "2"));
+
+        j.jenkins.getGlobalNodeProperties().replace(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("FIRST", "2")));
+
+        assertEquals("2", GlobalNodePropertiesSnapshot.get().get("FIRST"));
+    }
+
+    @Test
+    void callersGetAModifiableCopy(JenkinsRule j) throws Exception {
+        j.jenkins.getGlobalNodeProperties().add(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("FIRST", "1")));
+
+        Map<String, Object> copy = Utils.getGlobalNodeProperties();
+        copy.put("FIRST", "2");
+
+        assertEquals("1", GlobalNodePropertiesSnapshot.get().get("FIRST"));
+        assertEquals("1", Utils.getGlobalNodeProperties().get("FIRST"));
+    }
+
+    @Test
+    void globalNodePropertiesOverrideTheSystemEnvironment(JenkinsRule j) throws Exception {
+        final String name = Utils.getSystemEnv().keySet().iterator().next();
+        j.jenkins.getGlobalNodeProperties().add(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry(name, "overridden")));
+
+        assertEquals("overridden", GlobalNodePropertiesSnapshot.getWithSystemEnv().get(name));
+    }
+}
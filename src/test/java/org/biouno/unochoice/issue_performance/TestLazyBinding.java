@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.Descriptor;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.Utils;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@WithJenkins
+class TestLazyBinding {
+
+    private static final String SCRIPT = "return [VALUE, binding.hasVariable('UNSET')]";
+    private static final String VARIABLES_SCRIPT = "return binding.variables.keySet().findAll { it.startsWith('PARAM_') }.sort()";
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(VARIABLES_SCRIPT, GroovyLanguage.get());
+    }
+
+    @Test
+    void macrosAreExpandedWhenTheVariableIsRead() throws Descriptor.FormException {
+        GroovyScript script = new GroovyScript(new SecureGroovyScript(SCRIPT, false, null), null);
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("VALUE", "${PATH}");
+        parameters.put("UNSET", null);
+
+        assertEquals(Arrays.asList(System.getenv("PATH"), false), script.eval(parameters));
+    }
+
+    @Test
+    void allVariablesAreVisibleToTheScript() throws Descriptor.FormException {
+        GroovyScript script = new GroovyScript(new SecureGroovyScript(VARIABLES_SCRIPT, false, null), null);
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("PARAM_B", "b");
+        parameters.put("PARAM_A", "${PATH}");
+
+        assertEquals(Arrays.asList("PARAM_A", "PARAM_B"), script.eval(parameters));
+    }
+
+    @Test
+    void systemEnvironmentIsAnImmutableSnapshot() {
+        assertEquals(System.getenv(), Utils.getSystemEnv());
+        assertThrows(UnsupportedOperationException.class, () -> Utils.getSystemEnv().put("A", "B"));
+    }
+}
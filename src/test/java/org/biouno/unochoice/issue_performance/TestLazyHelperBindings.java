@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.Descriptor;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import org.biouno.unochoice.AbstractScriptableParameter;
+import org.biouno.unochoice.AbstractUnoChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.ProjectIndex;
+import org.biouno.unochoice.model.GroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@WithJenkins
+class TestLazyHelperBindings {
+
+    private static final String SCRIPT = "return ['a']";
+    private static final String PROJECT_SCRIPT = "return [jenkinsProject.getFullName()]";
+    private static final String BUILD_SCRIPT = "return [binding.hasVariable('jenkinsBuild') ? 'build' : 'no build']";
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(PROJECT_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(BUILD_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+    }
+
+    @Test
+    void projectIsOnlyResolvedWhenRead() throws Exception {
+        ChoiceParameter unused = createParameter("unused", SCRIPT);
+        ChoiceParameter used = createParameter("used", PROJECT_SCRIPT);
+        FreeStyleProject project = j.createFreeStyleProject("lazy");
+        project.addProperty(new ParametersDefinitionProperty(unused, used));
+        // the project index would otherwise remember the project of the parameters when indexing it
+        ProjectIndex.invalidate();
+
+        assertEquals(Collections.singletonMap("a", "a"), unused.getChoices());
+        assertNull(getField(unused, "projectFullNameCache"));
+
+        assertEquals(Collections.singletonMap("lazy", "lazy"), used.getChoices());
+        assertEquals("lazy", getField(used, "projectFullNameCache"));
+    }
+
+    @Test
+    void buildIsUndefinedWithoutArtifacts() throws Exception {
+        ChoiceParameter parameter = createParameter("build", BUILD_SCRIPT);
+        FreeStyleProject project = j.createFreeStyleProject("no-artifacts");
+        project.addProperty(new ParametersDefinitionProperty(parameter));
+        j.buildAndAssertSuccess(project);
+
+        assertEquals(Collections.singletonMap("no build", "no build"), parameter.getChoices());
+    }
+
+    private static ChoiceParameter createParameter(String name, String script) throws Descriptor.FormException {
+        return new ChoiceParameter(
+                name,
+                "description",
+                name + "-random-name",
+                new GroovyScript(
+                        new SecureGroovyScript(script, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                false,
+                1
+        );
+    }
+
+    private static Object getField(Object target, String fieldName) throws ReflectiveOperationException {
+        Field field = AbstractScriptableParameter.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.Descriptor;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import org.biouno.unochoice.AbstractScriptableParameter;
+import org.biouno.unochoice.AbstractUnoChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.ProjectIndex;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.Utils;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.lang.reflect.Field;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@WithJenkins
+class TestProjectIndex {
+
+    private static final String UUID = "index-random-name";
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+    }
+
+    @Test
+    void followsProjectChanges() throws Exception {
+        assertNull(Utils.findProjectByParameterUUID(UUID));
+
+        FreeStyleProject project = j.createFreeStyleProject("indexed");
+        project.addProperty(new ParametersDefinitionProperty(createParameter()));
+        assertEquals(project, Utils.findProjectByParameterUUID(UUID));
+
+        project.renameTo("renamed");
+        assertEquals("renamed", Utils.findProjectByParameterUUID(UUID).getFullName());
+
+        FreeStyleProject copy = j.jenkins.copy(project, "copy");
+        project.delete();
+        assertEquals(copy, Utils.findProjectByParameterUUID(UUID));
+
+        copy.removeProperty(ParametersDefinitionProperty.class);
+        assertNull(Utils.findProjectByParameterUUID(UUID));
+    }
+
+    @Test
+    void findsProjectsByShortName() throws Exception {
+        assertNull(ProjectIndex.getProjectByName("short"));
+
+        FreeStyleProject project = j.createFreeStyleProject("short");
+        assertEquals(project, ProjectIndex.getProjectByName("short"));
+
+        project.renameTo("other");
+        assertNull(ProjectIndex.getProjectByName("short"));
+        assertEquals(project, ProjectIndex.getProjectByName("other"));
+
+        project.delete();
+        assertNull(ProjectIndex.getProjectByName("other"));
+    }
+
+    @Test
+    void remembersTheProjectOfParametersWithoutProjectFullName() throws Exception {
+        ChoiceParameter parameter = createParameter();
+        FreeStyleProject project = j.createFreeStyleProject("legacy");
+        project.addProperty(new ParametersDefinitionProperty(parameter));
+        assertNull(getField(parameter, "projectFullName"));
+
+        ProjectIndex.invalidate();
+        assertEquals(project, ProjectIndex.getProjectByName("legacy"));
+
+        assertEquals(project.getFullName(), getField(parameter, "projectFullNameCache"));
+    }
+
+    @Test
+    void findsPipelineJobs() throws Exception {
+        WorkflowJob job = j.jenkins.createProject(WorkflowJob.class, "pipeline");
+        job.addProperty(new ParametersDefinitionProperty(createParameter()));
+
+        assertEquals(job, ProjectIndex.findJobByParameterUUID(UUID));
+        assertEquals(job, ProjectIndex.getJobByName("pipeline"));
+        assertNull(Utils.findProjectByParameterUUID(UUID));
+    }
+
+    private static Object getField(Object target, String fieldName) throws ReflectiveOperationException {
+        Field field = AbstractScriptableParameter.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+
+    private static ChoiceParameter createParameter() throws Descriptor.FormException {
+        return new ChoiceParameter(
+                "param",
+                "description",
+                UUID,
+                new GroovyScript(
+                        new SecureGroovyScript("return ['a']", false, null),
+                        new SecureGroovyScript("return ['EMPTY!']", false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                false,
+                1
+        );
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.Descriptor;
+import org.biouno.unochoice.AbstractUnoChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.model.ScriptAnalysis;
+import org.biouno.unochoice.util.ChoiceCache;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@WithJenkins
+class TestScriptAnalysis {
+
+    private static final String SCRIPT = "return [VALUE, System.nanoTime().toString()]";
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+        ChoiceCache.INSTANCE.clear();
+    }
+
+    @Test
+    void findsTheVariablesReadByTheScript() {
+        ScriptAnalysis analysis = ScriptAnalysis.analyze("def local = 1\n"
+                + "def upper = { it.toUpperCase() }\n"
+                + "return [local, upper(VALUE), \"${OTHER}\", jenkinsProject.name]");
+
+        assertTrue(analysis.isPrecise());
+        assertTrue(analysis.mayRead("VALUE"));
+        assertTrue(analysis.mayRead("OTHER"));
+        assertTrue(analysis.mayRead("jenkinsProject"));
+        assertFalse(analysis.mayRead("local"));
+        assertFalse(analysis.mayRead("jenkinsBuild"));
+    }
+
+    @Test
+    void bindingAccessMayReadAnyVariable() {
+        ScriptAnalysis analysis = ScriptAnalysis.analyze("return binding.variables.keySet().toList()");
+
+        assertFalse(analysis.isPrecise());
+        assertTrue(analysis.mayRead("VALUE"));
+    }
+
+    @Test
+    void scriptsThatCannotBeParsedMayReadAnyVariable() {
+        assertSame(ScriptAnalysis.UNKNOWN, ScriptAnalysis.analyze("return [VALUE"));
+    }
+
+    @Test
+    void unreadReferencesAreNotPartOfTheCacheKey() throws Descriptor.FormException {
+        ChoiceParameter parameter = new ChoiceParameter(
+                "param",
+                "description",
+                "analysis-random-name",
+                new GroovyScript(
+                        new SecureGroovyScript(SCRIPT, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                false,
+                1
+        );
+        parameter.setChoicesCacheTtl(60);
+
+        Map<Object, Object> first = new LinkedHashMap<>();
+        first.put("VALUE", "a");
+        first.put("UNUSED", "1");
+        Map<Object, Object> second = new LinkedHashMap<>(first);
+        second.put("UNUSED", "2");
+
+        assertEquals(parameter.getChoices(first), parameter.getChoices(second));
+        assertEquals(1, ChoiceCache.INSTANCE.size());
+    }
+}
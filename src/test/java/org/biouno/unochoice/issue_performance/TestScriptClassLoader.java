@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.Descriptor;
+import org.biouno.unochoice.model.CompiledScriptCache;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.model.ScriptClassLoader;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@WithJenkins
+class TestScriptClassLoader {
+
+    private static final String SCRIPT = "return ['a']";
+    private static final String CLASS_SCRIPT = "class Item { String name }\nreturn [new Item(name: 'b').name]";
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(CLASS_SCRIPT, GroovyLanguage.get());
+    }
+
+    @Test
+    void classLoaderIsSharedUntilInvalidated() throws Descriptor.FormException {
+        ClassLoader loader = ScriptClassLoader.get();
+        assertSame(loader, ScriptClassLoader.get());
+        assertSame(j.jenkins.getPluginManager().uberClassLoader, loader.getParent());
+
+        GroovyScript script = new GroovyScript(new SecureGroovyScript(SCRIPT, false, null), null);
+        assertEquals(Collections.singletonList("a"), script.eval());
+        assertTrue(ScriptClassLoader.getLoadedClassCount() > 0);
+
+        long generation = ScriptClassLoader.getCurrentGeneration();
+        ScriptClassLoader.invalidate();
+
+        assertEquals(0, CompiledScriptCache.INSTANCE.size());
+        assertNotSame(loader, ScriptClassLoader.get());
+        assertEquals(generation + 1, ScriptClassLoader.getCurrentGeneration());
+        assertEquals(Collections.singletonList("a"), script.eval());
+    }
+
+    @Test
+    void loadedClassesIncludeTheClassesDefinedByScripts() throws Descriptor.FormException {
+        CompiledScriptCache.INSTANCE.clear();
+
+        GroovyScript script = new GroovyScript(new SecureGroovyScript(CLASS_SCRIPT, false, null), null);
+        assertEquals(Collections.singletonList("b"), script.eval());
+
+        assertEquals(1, CompiledScriptCache.INSTANCE.size());
+        // the script class and the Item class
+        assertTrue(ScriptClassLoader.getLoadedClassCount() >= 2);
+    }
+}
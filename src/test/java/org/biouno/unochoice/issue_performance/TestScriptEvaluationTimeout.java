@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.Descriptor;
+import org.biouno.unochoice.AbstractUnoChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.ScriptEvaluationExecutor;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@WithJenkins
+class TestScriptEvaluationTimeout {
+
+    private static final String SLOW_SCRIPT = "Thread.sleep(10000)\nreturn ['slow']";
+    private static final String SCRIPT = "return ['a', 'b']";
+    private static final String THREAD_SCRIPT = "return [Thread.currentThread().getName()]";
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ScriptApproval.get().preapprove(SLOW_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(THREAD_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+    }
+
+    @Test
+    void slowScriptsUseTheFallbackAfterTheTimeout() throws Descriptor.FormException {
+        ChoiceParameter parameter = createParameter(SLOW_SCRIPT);
+        parameter.setEvaluationTimeout(1);
+
+        long timedOut = ScriptEvaluationExecutor.INSTANCE.getTimedOutCount();
+        long start = System.currentTimeMillis();
+
+        assertEquals(Collections.singletonList("EMPTY!"), Arrays.asList(parameter.getChoices().values().toArray()));
+        assertEquals(timedOut + 1, ScriptEvaluationExecutor.INSTANCE.getTimedOutCount());
+        // the request thread must not wait for the slow script
+        assertTrue(System.currentTimeMillis() - start < 9000);
+    }
+
+    @Test
+    void scriptsWithTimeoutAreEvaluatedInThePool() throws Descriptor.FormException {
+        ChoiceParameter parameter = createParameter(SCRIPT);
+        parameter.setEvaluationTimeout(30);
+
+        long submitted = ScriptEvaluationExecutor.INSTANCE.getSubmittedCount();
+
+        assertEquals(Arrays.asList("a", "b"), Arrays.asList(parameter.getChoices().values().toArray()));
+        assertEquals(submitted + 1, ScriptEvaluationExecutor.INSTANCE.getSubmittedCount());
+    }
+
+    @Test
+    void scriptsWithoutTimeoutAreEvaluatedInTheCallingThread() throws Descriptor.FormException {
+        ChoiceParameter parameter = createParameter(THREAD_SCRIPT);
+
+        long submitted = ScriptEvaluationExecutor.INSTANCE.getSubmittedCount();
+
+        assertEquals(Collections.singletonList(Thread.currentThread().getName()),
+                Arrays.asList(parameter.getChoices().values().toArray()));
+        assertEquals(submitted, ScriptEvaluationExecutor.INSTANCE.getSubmittedCount());
+    }
+
+    private static ChoiceParameter createParameter(String script) throws Descriptor.FormException {
+        return new ChoiceParameter(
+                "param",
+                "description",
+                "random-name",
+                new GroovyScript(
+                        new SecureGroovyScript(script, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                false,
+                1
+        );
+    }
+}
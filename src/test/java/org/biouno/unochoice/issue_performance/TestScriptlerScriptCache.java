@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.FileParameterValue;
+import org.apache.commons.fileupload2.core.FileItem;
+import org.apache.commons.io.FileUtils;
+import org.biouno.unochoice.model.ScriptlerScript;
+import org.jenkinsci.plugins.scriptler.ScriptlerHelper;
+import org.jenkinsci.plugins.scriptler.ScriptlerManagement;
+import org.jenkinsci.plugins.scriptler.builder.ScriptlerBuilder;
+import org.jenkinsci.plugins.scriptler.config.Script;
+import org.jenkinsci.plugins.scriptler.config.ScriptlerConfiguration;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@WithJenkins
+class TestScriptlerScriptCache {
+
+    private static final String SCRIPT = "return 'first'";
+    private static final String UPDATED_SCRIPT = "return 'second'";
+
+    @Test
+    void groovyScriptIsCachedUntilTheScriptFileChanges(JenkinsRule j) throws Exception {
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(UPDATED_SCRIPT, GroovyLanguage.get());
+        final ScriptlerManagement scriptler = j.getInstance().getExtensionList(ScriptlerManagement.class).get(0);
+        final File scriptFile = Files.createTempFile("uno-choice", "cache.groovy").toFile();
+        FileUtils.writeStringToFile(scriptFile, SCRIPT, Charset.defaultCharset(), false);
+        final FileItem<?> fi = new FileParameterValue.FileItemImpl2(scriptFile);
+        new ScriptlerHelper(scriptler).saveScript(fi, true, "cache.groovy");
+        Script script = new Script("cache.groovy", "cache.groovy", "A comment.", false, Collections.emptyList(), false);
+        ScriptlerConfiguration.getConfiguration().addOrReplace(script);
+        ScriptlerScript scriptlerScript = new ScriptlerScript(new ScriptlerBuilder("", script.getId(), false, List.of()), Boolean.FALSE);
+
+        assertEquals("first", scriptlerScript.eval());
+        assertSame(scriptlerScript.toGroovyScript(), scriptlerScript.toGroovyScript());
+
+        final File storedScript = new File(new File(ScriptlerManagement.getScriptlerHomeDirectory(), "scripts"), "cache.groovy");
+        final Object previous = scriptlerScript.toGroovyScript();
+        FileUtils.writeStringToFile(storedScript, UPDATED_SCRIPT, Charset.defaultCharset(), false);
+        storedScript.setLastModified(storedScript.lastModified() + 2000);
+
+        assertNotSame(previous, scriptlerScript.toGroovyScript());
+        assertEquals("second", scriptlerScript.eval());
+    }
+}
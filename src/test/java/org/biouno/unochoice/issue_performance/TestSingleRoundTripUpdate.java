@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.biouno.unochoice.issue_performance;
+
+import net.sf.json.JSONObject;
+import org.biouno.unochoice.CascadeChoiceParameter;
+import org.biouno.unochoice.DynamicReferenceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@WithJenkins
+class TestSingleRoundTripUpdate {
+
+    private static final String SCRIPT = "return [VALUE, OTHER]";
+    private static final String HTML_SCRIPT = "return '<b>' + VALUE + '</b>'";
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(HTML_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+    }
+
+    @Test
+    void updatesTheParametersAndReturnsTheChoices() throws Exception {
+        CascadeChoiceParameter parameter = new CascadeChoiceParameter("param", "description", "round-trip-random-name",
+                new GroovyScript(new SecureGroovyScript(SCRIPT, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)),
+                CascadeChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "VALUE,OTHER", false, 0);
+
+        List<Object> choices = parameter.updateAndGetChoicesForUI(new JSONObject().element("VALUE", "a").element("OTHER", "b=c"), null);
+        assertEquals(Arrays.asList("a", "b=c"), new ArrayList<>((Collection<?>) choices.get(0)));
+        assertEquals("a", parameter.getParameters().get("VALUE"));
+
+        choices = parameter.updateAndGetChoicesForUI(new JSONObject().element("VALUE", "d").element("OTHER", "e"), null);
+        assertEquals(Arrays.asList("d", "e"), new ArrayList<>((Collection<?>) choices.get(0)));
+    }
+
+    @Test
+    void updatesTheParametersAndReturnsTheHtml() throws Exception {
+        DynamicReferenceParameter parameter = new DynamicReferenceParameter("param", "description", "round-trip-html-random-name",
+                new GroovyScript(new SecureGroovyScript(HTML_SCRIPT, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)),
+                DynamicReferenceParameter.ELEMENT_TYPE_FORMATTED_HTML, "VALUE", false);
+
+        assertEquals("<b>a</b>", parameter.updateAndGetChoicesAsStringForUI(new JSONObject().element("VALUE", "a"), null));
+        assertEquals(Collections.singletonMap("VALUE", "a"), parameter.getParameters());
+    }
+}
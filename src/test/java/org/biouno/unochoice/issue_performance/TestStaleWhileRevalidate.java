@@ -0,0 +1,172 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.Descriptor;
+import org.biouno.unochoice.AbstractUnoChoiceParameter;
+import org.biouno.unochoice.CascadeChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.ChoiceCache;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@WithJenkins
+class TestStaleWhileRevalidate {
+
+    private static final String SCRIPT = "return [System.nanoTime().toString()]";
+    private static final String FALLBACK_SCRIPT = "return ['EMPTY!']";
+    private static final String LATCH = TestStaleWhileRevalidate.class.getName() + ".latch";
+    // hangs, ignoring interruptions, while the latch is set
+    private static final String HANGING_SCRIPT = "def latch = System.getProperties().get('" + LATCH + "')\n"
+            + "while (latch != null && latch.getCount() > 0) { try { latch.await() } catch (InterruptedException e) { } }\n"
+            + "return [System.nanoTime().toString()]";
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(HANGING_SCRIPT, GroovyLanguage.get());
+        ChoiceCache.INSTANCE.clear();
+    }
+
+    @Test
+    void expiredChoicesAreServedWhileRefreshed() throws Exception {
+        CascadeChoiceParameter parameter = new CascadeChoiceParameter(
+                "param",
+                "description",
+                "swr-random-name",
+                new GroovyScript(
+                        new SecureGroovyScript(SCRIPT, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                "",
+                false,
+                1
+        );
+        parameter.setChoicesCacheTtl(1);
+        parameter.setStaleWhileRevalidate(true);
+
+        List<Object> first = parameter.getChoicesForUI();
+        assertEquals(0L, first.get(2));
+
+        Thread.sleep(1500);
+
+        List<Object> stale = parameter.getChoicesForUI();
+        assertEquals(first.get(0).toString(), stale.get(0).toString());
+        assertTrue((Long) stale.get(2) > 0);
+
+        // wait for the background refresh
+        long deadline = System.currentTimeMillis() + 10000;
+        List<Object> fresh = parameter.getChoicesForUI();
+        while (first.get(0).toString().equals(fresh.get(0).toString()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            fresh = parameter.getChoicesForUI();
+        }
+        assertNotEquals(first.get(0).toString(), fresh.get(0).toString());
+        assertEquals(0L, fresh.get(2));
+    }
+
+    @Test
+    void staleChoicesRenderedInThePageDoNotAffectOtherEvaluations() throws Exception {
+        CascadeChoiceParameter parameter = createParameter("swr-page-random-name");
+        parameter.setChoicesCacheTtl(1);
+        parameter.setStaleWhileRevalidate(true);
+        CascadeChoiceParameter other = createParameter("swr-other-random-name");
+
+        parameter.getChoices();
+        Thread.sleep(1500);
+        // served stale, as when rendered by the page, without the age of the choices
+        parameter.getChoices();
+
+        assertEquals(0L, other.getChoicesForUI().get(2));
+    }
+
+    private static CascadeChoiceParameter createParameter(String randomName) throws Descriptor.FormException {
+        return new CascadeChoiceParameter(
+                "param",
+                "description",
+                randomName,
+                new GroovyScript(
+                        new SecureGroovyScript(SCRIPT, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                "",
+                false,
+                1
+        );
+    }
+
+    @Test
+    void hungRefreshesAreCancelledAfterTheTimeout() throws Exception {
+        CascadeChoiceParameter parameter = new CascadeChoiceParameter(
+                "param",
+                "description",
+                "swr-hung-random-name",
+                new GroovyScript(
+                        new SecureGroovyScript(HANGING_SCRIPT, false, null),
+                        new SecureGroovyScript(FALLBACK_SCRIPT, false, null)
+                ),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                "",
+                false,
+                1
+        );
+        parameter.setChoicesCacheTtl(1);
+        parameter.setStaleWhileRevalidate(true);
+        parameter.setEvaluationTimeout(1);
+
+        List<Object> first = parameter.getChoicesForUI();
+        CountDownLatch latch = new CountDownLatch(1);
+        System.getProperties().put(LATCH, latch);
+        try {
+            Thread.sleep(1500);
+            long refreshes = ChoiceCache.INSTANCE.getRefreshes();
+            assertEquals(first.get(0).toString(), parameter.getChoicesForUI().get(0).toString());
+            assertEquals(refreshes + 1, ChoiceCache.INSTANCE.getRefreshes());
+
+            // the hung refresh is cancelled after the timeout, so that the value is refreshed again
+            Thread.sleep(2000);
+            assertEquals(first.get(0).toString(), parameter.getChoicesForUI().get(0).toString());
+            assertEquals(refreshes + 2, ChoiceCache.INSTANCE.getRefreshes());
+        } finally {
+            latch.countDown();
+            System.getProperties().remove(LATCH);
+        }
+    }
+}